@@ -0,0 +1,61 @@
+package com.artisancode.fabrication.benchmarks;
+
+import com.artisancode.fabrication.CollectionBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CollectionBuilderBenchmark
+{
+	@Param({"10", "1000", "100000", "10000000"})
+	public int size;
+
+	@Param({"all", "slice", "predicated", "random"})
+	public String modifications;
+
+	@Benchmark
+	public List<Fixtures.Flat> fabricate()
+	{
+		return configure(new CollectionBuilder<>(Fixtures.Flat.class)).fabricate();
+	}
+
+	@Benchmark
+	public List<Fixtures.Flat> fabricatePrototype()
+	{
+		return configure(new CollectionBuilder<>(Fixtures.Flat.class)).prototype().fabricate();
+	}
+
+	protected CollectionBuilder<Fixtures.Flat> configure(CollectionBuilder<Fixtures.Flat> builder)
+	{
+		builder.ofSize(size);
+		switch (modifications)
+		{
+			case "all":
+				return builder.all().with(x -> x.name = "bob").and(x -> x.active = true);
+			case "slice":
+				return builder.theSlice(0, size / 2).with(x -> x.name = "bob").and(x -> x.active = true);
+			case "predicated":
+				return builder.predicated(i -> i % 3 == 0).with(x -> x.name = "bob").and(x -> x.active = true);
+			case "random":
+				return builder.random(size / 2, 1234).with(x -> x.name = "bob").and(x -> x.active = true);
+			default:
+				throw new IllegalArgumentException(modifications);
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package com.artisancode.fabrication.benchmarks;
+
+import java.time.Instant;
+
+public class Fixtures
+{
+	public static class Flat
+	{
+		public int id;
+		public long version;
+		public double amount;
+		public boolean active;
+		public String name;
+	}
+
+	public static class Wide
+	{
+		public int a1;
+		public int a2;
+		public int a3;
+		public int a4;
+		public long b1;
+		public long b2;
+		public long b3;
+		public long b4;
+		public double c1;
+		public double c2;
+		public double c3;
+		public double c4;
+		public String d1;
+		public String d2;
+		public String d3;
+		public String d4;
+		public Instant e1;
+		public Instant e2;
+		public Status f1;
+		public Status f2;
+	}
+
+	public static class Nested
+	{
+		public int depth;
+		public String name;
+		public Flat flat;
+		public Nested left;
+		public Nested right;
+	}
+
+	public enum Status
+	{
+		ACTIVE,
+		INACTIVE
+	}
+}
@@ -0,0 +1,72 @@
+package com.artisancode.fabrication.benchmarks;
+
+import com.artisancode.fabrication.FabricatorConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenerateBenchmark
+{
+	private FabricatorConfiguration configuration;
+	private FabricatorConfiguration customConfiguration;
+
+	@Setup
+	public void setUp()
+	{
+		configuration = new FabricatorConfiguration();
+		customConfiguration = new FabricatorConfiguration();
+		customConfiguration.customGenerators.put(int.class, () -> 42);
+	}
+
+	@Benchmark
+	public Object primitive()
+	{
+		return configuration.generate(int.class, "id");
+	}
+
+	@Benchmark
+	public Object customPrimitive()
+	{
+		return customConfiguration.generate(int.class, "id");
+	}
+
+	@Benchmark
+	public Object fieldNameString()
+	{
+		return configuration.generate(String.class, "name");
+	}
+
+	@Benchmark
+	public Object temporal()
+	{
+		return configuration.generate(Instant.class, "created");
+	}
+
+	@Benchmark
+	public Object enumConstant()
+	{
+		return configuration.generate(Fixtures.Status.class, "status");
+	}
+
+	@Benchmark
+	public Object unfabricatable()
+	{
+		return configuration.generate(Runnable.class, "callback");
+	}
+}
@@ -0,0 +1,70 @@
+package com.artisancode.fabrication.benchmarks;
+
+import com.artisancode.fabrication.FabricatorConfiguration;
+import com.artisancode.fabrication.ObjectBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectBuilderBenchmark
+{
+	@Param({"0", "1", "3", "5"})
+	public int recurseLimit;
+
+	private ObjectBuilder<Fixtures.Flat> flat;
+	private ObjectBuilder<Fixtures.Wide> wide;
+	private ObjectBuilder<Fixtures.Nested> nested;
+	private Fixtures.Nested existingNested;
+
+	@Setup
+	public void setUp()
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.recurseLimit = recurseLimit;
+
+		flat = new ObjectBuilder<>(Fixtures.Flat.class, configuration);
+		wide = new ObjectBuilder<>(Fixtures.Wide.class, configuration);
+		nested = new ObjectBuilder<>(Fixtures.Nested.class, configuration);
+		existingNested = nested.fabricate();
+	}
+
+	@Benchmark
+	public Fixtures.Flat flat()
+	{
+		return flat.fabricate();
+	}
+
+	@Benchmark
+	public Fixtures.Wide wide()
+	{
+		return wide.fabricate();
+	}
+
+	@Benchmark
+	public Fixtures.Nested nested()
+	{
+		return nested.fabricate();
+	}
+
+	@Benchmark
+	public Fixtures.Nested nestedInto()
+	{
+		return nested.fabricateInto(existingNested);
+	}
+}
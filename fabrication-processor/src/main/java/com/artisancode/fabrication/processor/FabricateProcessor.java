@@ -0,0 +1,371 @@
+package com.artisancode.fabrication.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+@SupportedAnnotationTypes(FabricateProcessor.FABRICATE_ANNOTATION)
+public class FabricateProcessor extends AbstractProcessor
+{
+	static final String FABRICATE_ANNOTATION = "com.artisancode.fabrication.Fabricate";
+	static final String SERVICE_FILE = "META-INF/services/com.artisancode.fabrication.GeneratedFabricator";
+
+	private final List<String> generatedFabricators = new ArrayList<>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion()
+	{
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnvironment)
+	{
+		for (TypeElement annotation : annotations)
+		{
+			for (Element element : roundEnvironment.getElementsAnnotatedWith(annotation))
+			{
+				if (element.getKind() != ElementKind.CLASS)
+				{
+					error(element, "@Fabricate can only be used on classes");
+					continue;
+				}
+
+				generate((TypeElement) element);
+			}
+		}
+
+		if (roundEnvironment.processingOver() && !generatedFabricators.isEmpty())
+		{
+			writeServiceFile();
+		}
+
+		return true;
+	}
+
+	protected void generate(TypeElement type)
+	{
+		String unsupported = unsupportedReason(type);
+		if (unsupported != null)
+		{
+			// The type will still be fabricated through the reflective ObjectBuilder
+			warning(type, String.format("No fabricator generated for %s: %s", type.getQualifiedName(), unsupported));
+			return;
+		}
+
+		List<String> assignments = new ArrayList<>();
+		List<String> declarations = new ArrayList<>();
+		String packageName = packageOf(type).getQualifiedName().toString();
+		TypeElement current = type;
+		while (current != null && !current.getQualifiedName().contentEquals("java.lang.Object"))
+		{
+			for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements()))
+			{
+				if (field.getModifiers().contains(Modifier.STATIC))
+				{
+					continue;
+				}
+
+				String assignment = assignment(type, current, field, packageName, declarations);
+				if (assignment == null)
+				{
+					warning(type, String.format("No fabricator generated for %s: field %s of %s is final or not accessible from package %s and has no accessible setter",
+					                            type.getQualifiedName(), field.getSimpleName(), current.getQualifiedName(), packageName));
+					return;
+				}
+				assignments.add(assignment);
+			}
+
+			current = superclassOf(current);
+		}
+
+		String simpleName = fabricatorName(type);
+		String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+		try
+		{
+			JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+			try (Writer writer = file.openWriter())
+			{
+				writer.write(source(type, packageName, simpleName, declarations, assignments));
+			}
+			generatedFabricators.add(qualifiedName);
+		}
+		catch (IOException e)
+		{
+			error(type, String.format("Unable to write fabricator %s: %s", qualifiedName, e.getMessage()));
+		}
+	}
+
+	protected String unsupportedReason(TypeElement type)
+	{
+		if (type.getModifiers().contains(Modifier.ABSTRACT))
+		{
+			return "abstract classes can't be fabricated";
+		}
+
+		if (!type.getTypeParameters().isEmpty())
+		{
+			return "generic classes aren't supported";
+		}
+
+		for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement())
+		{
+			if (element.getModifiers().contains(Modifier.PRIVATE))
+			{
+				return "the class isn't accessible from its package";
+			}
+		}
+
+		return null;
+	}
+
+	protected String assignment(TypeElement type, TypeElement declaringType, VariableElement field, String packageName, List<String> declarations)
+	{
+		if (field.getModifiers().contains(Modifier.FINAL))
+		{
+			return null;
+		}
+
+		TypeMirror fieldType = field.asType();
+		// The field's type as seen from the target, so inherited fields like T value of Base<T> are typed as in
+		// Child extends Base<String>; the type variable itself isn't in scope in the generated code
+		TypeMirror valueType = processingEnv.getTypeUtils().asMemberOf((DeclaredType) type.asType(), field);
+		String name = field.getSimpleName().toString();
+		String value;
+		if (isGeneric(valueType))
+		{
+			// The erasure would lose the element types of lists, maps and arrays, so go through the field like the
+			// reflective builder does; it is looked up once, when the fabricator is loaded
+			String constant = "FIELD_" + declarations.size();
+			declarations.add(String.format("private static final com.artisancode.fabrication.FabricationField %s = com.artisancode.fabrication.FabricationPlan.of(%s.class).getField(%s.class, \"%s\");",
+			                               constant, type.getQualifiedName(), declaringType.getQualifiedName(), name));
+			value = String.format("(%s) configuration.generate(%s)", castType(valueType), constant);
+		}
+		else
+		{
+			value = String.format("(%s) configuration.generate(%s.class, \"%s\")",
+			                      castType(valueType),
+			                      processingEnv.getTypeUtils().erasure(valueType),
+			                      name);
+		}
+
+		// Cast to the declaring type so hidden superclass fields are assigned rather than the subclass ones
+		String receiver = declaringType.equals(type) ? "result" : String.format("((%s) result)", declaringType.getQualifiedName());
+
+		if (isAccessible(field, declaringType, packageName))
+		{
+			return String.format("%s.%s = %s;", receiver, name, value);
+		}
+
+		String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+		for (ExecutableElement method : ElementFilter.methodsIn(declaringType.getEnclosedElements()))
+		{
+			boolean isSetter = method.getSimpleName().contentEquals(setterName)
+					                   && method.getParameters().size() == 1
+					                   && !method.getModifiers().contains(Modifier.STATIC)
+					                   && processingEnv.getTypeUtils().isSameType(method.getParameters().get(0).asType(), fieldType);
+			if (isSetter && isAccessible(method, declaringType, packageName))
+			{
+				return String.format("%s.%s(%s);", receiver, setterName, value);
+			}
+		}
+
+		return null;
+	}
+
+	protected boolean isGeneric(TypeMirror type)
+	{
+		if (type.getKind() == TypeKind.ARRAY)
+		{
+			return isGeneric(((ArrayType) type).getComponentType());
+		}
+
+		return type.getKind() == TypeKind.DECLARED && !((DeclaredType) type).getTypeArguments().isEmpty();
+	}
+
+	protected boolean isAccessible(Element member, TypeElement declaringType, String packageName)
+	{
+		Set<Modifier> modifiers = member.getModifiers();
+		if (modifiers.contains(Modifier.PUBLIC))
+		{
+			return true;
+		}
+
+		return !modifiers.contains(Modifier.PRIVATE) && packageOf(declaringType).getQualifiedName().contentEquals(packageName);
+	}
+
+	protected String source(TypeElement type, String packageName, String simpleName, List<String> declarations, List<String> assignments)
+	{
+		String target = type.getQualifiedName().toString();
+
+		StringBuilder source = new StringBuilder();
+		if (!packageName.isEmpty())
+		{
+			source.append("package ").append(packageName).append(";\n\n");
+		}
+		source.append("// Generated by the fabrication-processor from ").append(target).append(", do not edit\n");
+		source.append("public final class ").append(simpleName)
+		      .append(" implements com.artisancode.fabrication.GeneratedFabricator<").append(target).append(">\n");
+		source.append("{\n");
+		for (String declaration : declarations)
+		{
+			source.append("\t").append(declaration).append("\n");
+		}
+		if (!declarations.isEmpty())
+		{
+			source.append("\n");
+		}
+		source.append("\t@Override\n");
+		source.append("\tpublic Class<").append(target).append("> target()\n");
+		source.append("\t{\n");
+		source.append("\t\treturn ").append(target).append(".class;\n");
+		source.append("\t}\n\n");
+		source.append("\t@Override\n");
+		source.append("\t@SuppressWarnings(\"unchecked\")\n");
+		source.append("\tpublic ").append(target).append(" fabricate(com.artisancode.fabrication.FabricatorConfiguration configuration)\n");
+		source.append("\t{\n");
+		source.append("\t\t").append(target).append(" result = ").append(instantiation(type)).append(";\n");
+		for (String assignment : assignments)
+		{
+			source.append("\t\t").append(assignment).append("\n");
+		}
+		source.append("\t\treturn result;\n");
+		source.append("\t}\n");
+		source.append("}\n");
+		return source.toString();
+	}
+
+	protected String instantiation(TypeElement type)
+	{
+		String target = type.getQualifiedName().toString();
+		boolean isInnerClass = type.getNestingKind().isNested() && !type.getModifiers().contains(Modifier.STATIC);
+
+		if (!isInnerClass)
+		{
+			for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements()))
+			{
+				if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE))
+				{
+					return "new " + target + "()";
+				}
+			}
+		}
+
+		// No usable constructor, so skip construction entirely like the reflective builder does
+		return "com.artisancode.fabrication.Instantiators.newInstance(" + target + ".class)";
+	}
+
+	protected String castType(TypeMirror type)
+	{
+		if (type.getKind().isPrimitive())
+		{
+			return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+		}
+
+		return type.toString();
+	}
+
+	protected String fabricatorName(TypeElement type)
+	{
+		String name = type.getSimpleName().toString();
+		for (Element enclosing = type.getEnclosingElement(); enclosing instanceof TypeElement; enclosing = enclosing.getEnclosingElement())
+		{
+			name = enclosing.getSimpleName() + "_" + name;
+		}
+		return name + "_Fabricator";
+	}
+
+	protected TypeElement superclassOf(TypeElement type)
+	{
+		TypeMirror superclass = type.getSuperclass();
+		if (superclass.getKind() != TypeKind.DECLARED)
+		{
+			return null;
+		}
+		return (TypeElement) ((DeclaredType) superclass).asElement();
+	}
+
+	protected PackageElement packageOf(Element element)
+	{
+		return processingEnv.getElementUtils().getPackageOf(element);
+	}
+
+	// Incremental builds only process the classes that changed, so the entries of earlier compilations are kept as long
+	// as their fabricators still exist
+	protected void writeServiceFile()
+	{
+		Set<String> fabricators = new LinkedHashSet<>();
+		try
+		{
+			FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+			try (BufferedReader reader = new BufferedReader(existing.openReader(true)))
+			{
+				for (String line = reader.readLine(); line != null; line = reader.readLine())
+				{
+					String fabricator = line.trim();
+					if (!fabricator.isEmpty() && !fabricator.startsWith("#") && processingEnv.getElementUtils().getTypeElement(fabricator) != null)
+					{
+						fabricators.add(fabricator);
+					}
+				}
+			}
+		}
+		catch (IOException | IllegalArgumentException e)
+		{
+			// Nothing written by an earlier compilation
+		}
+		fabricators.addAll(generatedFabricators);
+
+		try
+		{
+			FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+			try (Writer writer = file.openWriter())
+			{
+				for (String fabricator : fabricators)
+				{
+					writer.write(fabricator);
+					writer.write("\n");
+				}
+			}
+		}
+		catch (IOException e)
+		{
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write " + SERVICE_FILE + ": " + e.getMessage());
+		}
+	}
+
+	private void warning(Element element, String message)
+	{
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, message, element);
+	}
+
+	private void error(Element element, String message)
+	{
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+	}
+}
@@ -0,0 +1,177 @@
+package com.artisancode.fabrication.processor;
+
+import com.artisancode.fabrication.FabricatorConfiguration;
+import com.artisancode.fabrication.GeneratedFabricator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FabricateProcessorTests
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testProcessorGeneratesFabricatorAndServiceEntry() throws Exception
+	{
+		File output = compile("sample/Person.java",
+		                      "package sample;\n" +
+		                      "@com.artisancode.fabrication.Fabricate\n" +
+		                      "public class Person {\n" +
+		                      "  public String name;\n" +
+		                      "  int age;\n" +
+		                      "  private long id;\n" +
+		                      "  public void setId(long id) { this.id = id; }\n" +
+		                      "  public long getId() { return id; }\n" +
+		                      "}\n");
+
+		assertTrue(new File(output, "sample/Person_Fabricator.class").exists());
+
+		List<String> services = Files.readAllLines(new File(output, FabricateProcessor.SERVICE_FILE).toPath());
+		assertEquals(Collections.singletonList("sample.Person_Fabricator"), services);
+
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[]{output.toURI().toURL()}, getClass().getClassLoader()))
+		{
+			GeneratedFabricator<?> fabricator = (GeneratedFabricator<?>) classLoader.loadClass("sample.Person_Fabricator").newInstance();
+			Object person = fabricator.fabricate(new FabricatorConfiguration(3));
+
+			assertEquals("sample.Person", fabricator.target().getName());
+			assertEquals("name", person.getClass().getField("name").get(person));
+			assertEquals(3L, person.getClass().getMethod("getId").invoke(person));
+		}
+	}
+
+	@Test
+	public void testProcessorKeepsContainerElementTypes() throws Exception
+	{
+		File output = compile("sample/Tagged.java",
+		                      "package sample;\n" +
+		                      "@com.artisancode.fabrication.Fabricate\n" +
+		                      "public class Tagged {\n" +
+		                      "  public java.util.List<String> tags;\n" +
+		                      "  public java.util.Map<String, Integer> scores;\n" +
+		                      "  public String[] names;\n" +
+		                      "}\n");
+
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[]{output.toURI().toURL()}, getClass().getClassLoader()))
+		{
+			GeneratedFabricator<?> fabricator = (GeneratedFabricator<?>) classLoader.loadClass("sample.Tagged_Fabricator").newInstance();
+			FabricatorConfiguration configuration = new FabricatorConfiguration();
+			configuration.containerSize = 3;
+			Object tagged = fabricator.fabricate(configuration);
+
+			assertEquals(Arrays.asList("tags", "tags[1]", "tags[2]"), tagged.getClass().getField("tags").get(tagged));
+			assertEquals(3, ((java.util.Map<?, ?>) tagged.getClass().getField("scores").get(tagged)).size());
+			assertEquals(3, ((String[]) tagged.getClass().getField("names").get(tagged)).length);
+		}
+	}
+
+	@Test
+	public void testProcessorResolvesFieldsInheritedFromGenericSuperclass() throws Exception
+	{
+		File output = compile("sample/Child.java",
+		                      "package sample;\n" +
+		                      "class Base<T> {\n" +
+		                      "  public T value;\n" +
+		                      "  public java.util.List<T> values;\n" +
+		                      "}\n" +
+		                      "@com.artisancode.fabrication.Fabricate\n" +
+		                      "public class Child extends Base<String> {\n" +
+		                      "  public int count;\n" +
+		                      "}\n");
+
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[]{output.toURI().toURL()}, getClass().getClassLoader()))
+		{
+			GeneratedFabricator<?> fabricator = (GeneratedFabricator<?>) classLoader.loadClass("sample.Child_Fabricator").newInstance();
+			Object child = fabricator.fabricate(new FabricatorConfiguration(3));
+
+			assertEquals(3, child.getClass().getField("count").get(child));
+			// Base isn't public, so its fields need to be made accessible to be read from here
+			java.lang.reflect.Field value = child.getClass().getField("value");
+			value.setAccessible(true);
+			assertEquals("value", value.get(child));
+			java.lang.reflect.Field values = child.getClass().getField("values");
+			values.setAccessible(true);
+			assertNotNull(values.get(child));
+		}
+	}
+
+	@Test
+	public void testIncrementalCompile_EarlierServiceEntriesKept() throws Exception
+	{
+		File output = compile("sample/Person.java",
+		                      "package sample;\n" +
+		                      "@com.artisancode.fabrication.Fabricate\n" +
+		                      "public class Person {\n" +
+		                      "  public String name;\n" +
+		                      "}\n");
+
+		// Only the new class is compiled, against the output of the first compilation
+		compile(output, "sample/Pet.java",
+		        "package sample;\n" +
+		        "@com.artisancode.fabrication.Fabricate\n" +
+		        "public class Pet {\n" +
+		        "  public String name;\n" +
+		        "}\n");
+
+		List<String> services = Files.readAllLines(new File(output, FabricateProcessor.SERVICE_FILE).toPath());
+		assertEquals(Arrays.asList("sample.Person_Fabricator", "sample.Pet_Fabricator"), services);
+	}
+
+	@Test
+	public void testProcessorSkipsClassesWithFinalFields() throws Exception
+	{
+		File output = compile("sample/Constant.java",
+		                      "package sample;\n" +
+		                      "@com.artisancode.fabrication.Fabricate\n" +
+		                      "public class Constant {\n" +
+		                      "  public final String name = \"constant\";\n" +
+		                      "}\n");
+
+		assertFalse(new File(output, "sample/Constant_Fabricator.class").exists());
+		assertFalse(new File(output, FabricateProcessor.SERVICE_FILE).exists());
+	}
+
+	private File compile(String path, String source) throws Exception
+	{
+		return compile(folder.newFolder(), path, source);
+	}
+
+	private File compile(File output, String path, String source) throws Exception
+	{
+		File sources = folder.newFolder();
+		File sourceFile = new File(sources, path);
+		assertTrue(sourceFile.getParentFile().mkdirs());
+		Files.write(sourceFile.toPath(), source.getBytes(StandardCharsets.UTF_8));
+
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8))
+		{
+			Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjects(sourceFile);
+			List<String> options = Arrays.asList("-classpath", System.getProperty("java.class.path") + File.pathSeparator + output.getPath(),
+			                                     "-d", output.getPath(),
+			                                     "-s", output.getPath());
+			JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null, units);
+			task.setProcessors(Collections.singletonList(new FabricateProcessor()));
+
+			assertTrue(task.call());
+		}
+
+		return output;
+	}
+}
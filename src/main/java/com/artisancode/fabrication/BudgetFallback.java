@@ -0,0 +1,10 @@
+package com.artisancode.fabrication;
+
+// What a nested object field gets once a graph has used up its FabricatorConfiguration budget
+public enum BudgetFallback
+{
+	// The field is left null (the default)
+	NULL,
+	// The field references an object of its type that the graph already built, or null if there isn't one
+	SHARED
+}
@@ -0,0 +1,28 @@
+package com.artisancode.fabrication;
+
+public abstract class CachingFieldWriterEngine implements FieldWriterEngine
+{
+	// Writers are resolved once per class and reused by every builder from then on
+	private final ClassValue<FieldWriter[]> writers = new ClassValue<FieldWriter[]>()
+	{
+		@Override
+		protected FieldWriter[] computeValue(Class<?> type)
+		{
+			FabricationPlan plan = FabricationPlan.peek(type);
+			FieldWriter[] result = new FieldWriter[plan.fields.size()];
+			for (int i = 0; i < result.length; i++)
+			{
+				result[i] = createWriter(plan.fields.get(i));
+			}
+			return result;
+		}
+	};
+
+	@Override
+	public FieldWriter[] writersFor(FabricationPlan plan)
+	{
+		return writers.get(plan.target);
+	}
+
+	protected abstract FieldWriter createWriter(FabricationField field);
+}
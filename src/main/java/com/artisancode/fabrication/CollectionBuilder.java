@@ -1,11 +1,16 @@
 package com.artisancode.fabrication;
 
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
-import java.util.function.Supplier;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 public class CollectionBuilder<T> {
     protected Class<? extends T> target;
@@ -16,10 +21,17 @@ public class CollectionBuilder<T> {
     protected int secondaryOperationModifier;
     protected int lastModificationStartIndex = 0;
     protected int lastModificationEndIndex = 0;
+    protected ModificationPlan<T> modifications;
+    // Read-only per-index view over the modification plan
     protected List<List<Consumer<T>>> modificationsArray;
-    protected Predicate<Integer> operationPredicate;
+    protected IntPredicate operationPredicate;
+    protected ModificationPlan.Predicated operationSelector;
+    protected boolean operationSelectorScanned;
+    protected int operationSelectorFirstIndex;
+    protected int operationSelectorLastIndex;
     protected Random random;
-    protected Supplier<Integer> getRandomIndex = () -> random.nextInt(size);
+    protected int parallelism = 1;
+    protected PrototypeCopy prototypeCopy;
     protected Map<CollectionModifications, Consumer<Consumer<T>>> stateModificationsMap = new HashMap<>();
 
     public CollectionBuilder(Class<? extends T> target) {
@@ -28,7 +40,7 @@ public class CollectionBuilder<T> {
 
     public CollectionBuilder(Class<? extends T> target, FabricatorConfiguration configuration) {
         this.target = target;
-        this.configuration = configuration;
+        this.configuration = configuration.forFabrication();
         state = CollectionModifications.ALL;
 
         stateModificationsMap = new HashMap<>();
@@ -52,10 +64,26 @@ public class CollectionBuilder<T> {
 
     protected void initModificationsAndState(int size) {
         this.size = size;
-        modificationsArray = new ArrayList<>(size);
-        for (int i = 0; i < size; i++) {
-            modificationsArray.add(i, new LinkedList<>());
-        }
+        ModificationPlan<T> plan = new ModificationPlan<>();
+        modifications = plan;
+        modificationsArray = new AbstractList<List<Consumer<T>>>() {
+            @Override
+            public List<Consumer<T>> get(int index) {
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size));
+                }
+
+                return plan.modificationsAt(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+
+        // Any predicate needs to be re-scanned against the new size
+        operationSelectorScanned = false;
 
         // Set the initial state of the CollectionBuilder so that you can't use previous/next without other modifications
         lastModificationStartIndex = 0;
@@ -95,7 +123,7 @@ public class CollectionBuilder<T> {
         return configureState(CollectionModifications.NTH, number);
     }
 
-    public CollectionBuilder<T> predicated(Predicate<Integer> predicate) {
+    public CollectionBuilder<T> predicated(IntPredicate predicate) {
         return configureState(CollectionModifications.PREDICATE, predicate);
     }
 
@@ -113,22 +141,200 @@ public class CollectionBuilder<T> {
         return configureState(CollectionModifications.RANDOM, number);
     }
 
+    public CollectionBuilder<T> parallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new FabricationException(String.format("Unable to fabricate with a parallelism of %d as it needs to be a positive integer", parallelism));
+        }
+
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    // Fabricate one element and copy it for every other element (before the modifications are applied), rather than
+    // fabricating each element from scratch
+    public CollectionBuilder<T> prototype() {
+        return prototype(PrototypeCopy.DEEP);
+    }
+
+    public CollectionBuilder<T> prototype(PrototypeCopy copy) {
+        prototypeCopy = copy;
+        return this;
+    }
+
+    // What fabricating the whole collection would cost, without fabricating anything
+    public FabricationExplanation explain() {
+        return FabricationExplanation.of(target, configuration, size);
+    }
+
     public List<T> fabricate() {
+        FabricationListener listener = configuration.listener;
+        long start = 0;
+        if (listener != null) {
+            start = System.nanoTime();
+            listener.collectionStarted(target, size);
+        }
+
+        List<T> result = parallelism > 1 ? fabricateWithParallelism() : fabricateSequentially();
+
+        if (listener != null) {
+            listener.collectionFabricated(target, size, modifications.size(), System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    public List<T> fabricateParallel() {
+        FabricationListener listener = configuration.listener;
+        long start = 0;
+        if (listener != null) {
+            start = System.nanoTime();
+            listener.collectionStarted(target, size);
+        }
+
+        List<T> result = fabricateIn(ForkJoinPool.commonPool());
+
+        if (listener != null) {
+            listener.collectionFabricated(target, size, modifications.size(), System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    protected List<T> fabricateWithParallelism() {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return fabricateIn(pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    protected List<T> fabricateSequentially() {
         T[] result = (T[]) new Object[size];
 
-        ObjectBuilder<T> builder = new ObjectBuilder<T>(target, configuration);
+        ObjectBuilder<T> builder = elementBuilder();
+        ModificationPlan.Index<T> index = modifications.index(size);
+
+        for (int i = 0; i < size; i++) {
+            result[i] = fabricateElement(builder, index, i);
+        }
+
+        return Arrays.asList(result);
+    }
+
+    protected List<T> fabricateIn(ForkJoinPool pool) {
+        T[] result = (T[]) new Object[size];
+
+        ObjectBuilder<T> builder = elementBuilder();
+
+        // Every index is fabricated and modified independently, so the split doesn't change the result
+        int threshold = Math.max(1, size / (pool.getParallelism() * 8));
+        pool.invoke(new FabricateRange(builder, modifications.index(size), result, 0, size, threshold));
+
+        return Arrays.asList(result);
+    }
+
+    public Stream<T> stream() {
+        ObjectBuilder<T> builder = elementBuilder();
+        ModificationPlan.Index<T> index = modifications.index(size);
+
+        // Elements are only fabricated as the stream pulls them
+        return IntStream.range(0, size).mapToObj(i -> fabricateElement(builder, index, i));
+    }
+
+    public Iterator<T> iterator() {
+        ObjectBuilder<T> builder = elementBuilder();
+        ModificationPlan.Index<T> modificationIndex = modifications.index(size);
+
+        return new Iterator<T>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return fabricateElement(builder, modificationIndex, index++);
+            }
+        };
+    }
+
+    public void forEach(Consumer<T> action) {
+        ObjectBuilder<T> builder = elementBuilder();
+        ModificationPlan.Index<T> index = modifications.index(size);
 
         for (int i = 0; i < size; i++) {
-            T fabricatedObject = builder.fabricate();
-            List<Consumer<T>> modifications = modificationsArray.get(i);
-            for (Consumer<T> mod : modifications) {
-                mod.accept(fabricatedObject);
+            action.accept(fabricateElement(builder, index, i));
+        }
+    }
+
+    // Streams the collection into the channel as it is fabricated, e.g. with a CsvDatasetWriter or JsonLinesDatasetWriter
+    public void writeTo(WritableByteChannel channel, DatasetWriter writer) throws IOException {
+        writer.write(this, channel);
+    }
+
+    // Refills a previously fabricated list in place: elements of the target type are refilled rather than replaced, and
+    // the list is grown or shrunk to the builder's size (which needs a list that supports add and remove)
+    public List<T> refill(List<T> existing) {
+        FabricationListener listener = configuration.listener;
+        long start = 0;
+        if (listener != null) {
+            start = System.nanoTime();
+            listener.collectionStarted(target, size);
+        }
+
+        ObjectBuilder<T> builder = elementBuilder();
+        ModificationPlan.Index<T> index = modifications.index(size);
+
+        int reused = Math.min(size, existing.size());
+        ListIterator<T> elements = existing.listIterator();
+        for (int i = 0; i < reused; i++) {
+            T element = elements.next();
+            if (element != null && element.getClass() == target) {
+                builder.fabricateInto(element);
+                index.apply(i, element);
+            } else {
+                elements.set(fabricateElement(builder, index, i));
             }
+        }
 
-            result[i] = fabricatedObject;
+        if (existing.size() > size) {
+            existing.subList(size, existing.size()).clear();
         }
 
-        return Arrays.asList(result);
+        for (int i = reused; i < size; i++) {
+            existing.add(fabricateElement(builder, index, i));
+        }
+
+        if (listener != null) {
+            listener.collectionFabricated(target, size, modifications.size(), System.nanoTime() - start);
+        }
+        return existing;
+    }
+
+    protected ObjectBuilder<T> elementBuilder() {
+        ObjectBuilder<T> builder = new ObjectBuilder<T>(target, configuration);
+        if (configuration.instanceSharing != InstanceSharing.NONE && configuration.shareInstancesAcrossCollection) {
+            // One set of shared objects for this run, used by every element
+            builder.sharedInstances = new SharedInstances(configuration.instanceSharing);
+        }
+
+        if (prototypeCopy != null) {
+            return new PrototypeBuilder<T>(builder, prototypeCopy);
+        }
+
+        return builder;
+    }
+
+    protected T fabricateElement(ObjectBuilder<T> builder, ModificationPlan.Index<T> modificationIndex, int index) {
+        T fabricatedObject = builder.fabricate();
+        modificationIndex.apply(index, fabricatedObject);
+
+        return fabricatedObject;
     }
 
     protected CollectionBuilder<T> add(Consumer<T> modifier) {
@@ -147,32 +353,35 @@ public class CollectionBuilder<T> {
             throw new FabricationException(String.format("Unable to modify %d number of random elements as the number of nodes to affect needs to less than or equal to the total size of the collection %d", primaryOperationModifier, size));
         }
 
-        Set<Integer> indiciesToModify = new HashSet<>(size);
-
-        while (indiciesToModify.size() != primaryOperationModifier) {
-            indiciesToModify.add(getRandomIndex.get());
-        }
+        int[] indices = IndexSampler.sample(random, primaryOperationModifier, size);
 
-        for (Integer index : indiciesToModify) {
-            modificationsArray.get(index).add(modifier);
-        }
+        modifications.add(new ModificationPlan.Indices(indices), modifier);
     }
 
     protected void handlePredicatedModifications(Consumer<T> modifier) {
-        boolean modified = false;
-        for (int i = 0; i < modificationsArray.size(); i++) {
-            // If the index matches the predicate, then add the modifier
-            if (operationPredicate.test(i)) {
-                if (!modified) {
-                    // Only set the start index state the first time we set a modifier
-                    modified = true;
-                    lastModificationStartIndex = i;
+        if (!operationSelectorScanned) {
+            // Only scan once per predicate, however many modifiers are chained onto it
+            operationSelectorScanned = true;
+            operationSelectorFirstIndex = -1;
+            for (int i = 0; i < size; i++) {
+                // Track the matching indices so that next/previous carry on from them
+                if (operationPredicate.test(i)) {
+                    if (operationSelectorFirstIndex < 0) {
+                        operationSelectorFirstIndex = i;
+                    }
+
+                    operationSelectorLastIndex = i;
                 }
-
-                modificationsArray.get(i).add(modifier);
-                lastModificationEndIndex = i;
             }
         }
+
+        if (operationSelectorFirstIndex >= 0) {
+            lastModificationStartIndex = operationSelectorFirstIndex;
+            lastModificationEndIndex = operationSelectorLastIndex;
+        }
+
+        // The selector itself is lazy, it is evaluated once per index while fabricating
+        modifications.add(operationSelector, modifier);
     }
 
     protected void handleModifyTheNthElement(Consumer<T> modifier) {
@@ -224,9 +433,7 @@ public class CollectionBuilder<T> {
     }
 
     public void handleGlobalModifications(Consumer<T> modifier) {
-        for (List<Consumer<T>> modifiers : modificationsArray) {
-            modifiers.add(modifier);
-        }
+        modifications.add(new ModificationPlan.Range(0, size - 1), modifier);
     }
 
     public void handleFirstModifications(Consumer<T> modifier) {
@@ -272,12 +479,14 @@ public class CollectionBuilder<T> {
     }
 
     protected void modifySlice(Consumer<T> modifier, int start, int end) {
+        if (start < 0 || end >= size) {
+            throw new FabricationException(String.format("Unable to modify the elements %d to %d as the list is only of size %d", start, end, size));
+        }
+
+        // Only a slice that was accepted moves where next/previous carry on from
         lastModificationStartIndex = start;
         lastModificationEndIndex = end;
-
-        for (int i = lastModificationStartIndex; i <= lastModificationEndIndex; i++) {
-            modificationsArray.get(i).add(modifier);
-        }
+        modifications.add(new ModificationPlan.Range(start, end), modifier);
     }
 
     private CollectionBuilder<T> configureState(CollectionModifications modification, int operationModifier) {
@@ -286,9 +495,11 @@ public class CollectionBuilder<T> {
         return this;
     }
 
-    private CollectionBuilder<T> configureState(CollectionModifications modification, Predicate<Integer> predicate) {
+    private CollectionBuilder<T> configureState(CollectionModifications modification, IntPredicate predicate) {
         state = modification;
         operationPredicate = predicate;
+        operationSelector = new ModificationPlan.Predicated(predicate);
+        operationSelectorScanned = false;
         return this;
     }
 
@@ -299,6 +510,68 @@ public class CollectionBuilder<T> {
         return this;
     }
 
+    // Builds every element as a copy of a single fabricated template; the template itself is never handed out
+    private static class PrototypeBuilder<T> extends ObjectBuilder<T> {
+        private final Containers.Lazy<T> template;
+        private final PrototypeCopy copy;
+
+        PrototypeBuilder(ObjectBuilder<T> builder, PrototypeCopy copy) {
+            super(builder.target, builder.configuration);
+            this.copy = copy;
+            // Built by the first copy, so an empty run builds nothing; listeners see the copies, not the template
+            template = new Containers.Lazy<>(builder::create);
+        }
+
+        @Override
+        public T fabricate() {
+            FabricationListener listener = configuration.listener;
+            long start = 0;
+            if (listener != null) {
+                start = System.nanoTime();
+                listener.objectStarted(target, configuration.depth);
+            }
+
+            T result = ObjectCopier.copy(template.get(), copy);
+
+            if (listener != null) {
+                listener.objectFabricated(target, configuration.depth, System.nanoTime() - start);
+            }
+            return result;
+        }
+    }
+
+    private class FabricateRange extends RecursiveAction {
+        private final ObjectBuilder<T> builder;
+        private final ModificationPlan.Index<T> modificationIndex;
+        private final T[] result;
+        private final int start;
+        private final int end;
+        private final int threshold;
+
+        FabricateRange(ObjectBuilder<T> builder, ModificationPlan.Index<T> modificationIndex, T[] result, int start, int end, int threshold) {
+            this.builder = builder;
+            this.modificationIndex = modificationIndex;
+            this.result = result;
+            this.start = start;
+            this.end = end;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= threshold) {
+                for (int i = start; i < end; i++) {
+                    result[i] = fabricateElement(builder, modificationIndex, i);
+                }
+                return;
+            }
+
+            int middle = (start + end) >>> 1;
+            invokeAll(new FabricateRange(builder, modificationIndex, result, start, middle, threshold),
+                      new FabricateRange(builder, modificationIndex, result, middle, end, threshold));
+        }
+    }
+
     private enum CollectionModifications {
         ALL,
         FIRST,
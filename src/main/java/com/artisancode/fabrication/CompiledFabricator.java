@@ -0,0 +1,156 @@
+package com.artisancode.fabrication;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+public class CompiledFabricator
+{
+	private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+	private static final MethodType fillType = MethodType.methodType(void.class, Object.class, FabricatorConfiguration.class);
+
+	// Compiled once per class; an empty Optional means the class has to use the reflective path
+	private static final ClassValue<Optional<CompiledFabricator>> compiled = new ClassValue<Optional<CompiledFabricator>>()
+	{
+		@Override
+		protected Optional<CompiledFabricator> computeValue(Class<?> type)
+		{
+			return Optional.ofNullable(compile(type));
+		}
+	};
+
+	protected final Supplier<Object> constructor;
+	protected final MethodHandle fill;
+
+	protected CompiledFabricator(Supplier<Object> constructor, MethodHandle fill)
+	{
+		this.constructor = constructor;
+		this.fill = fill;
+	}
+
+	public static CompiledFabricator of(Class<?> target)
+	{
+		return compiled.get(target).orElse(null);
+	}
+
+	public Object fabricate(FabricatorConfiguration configuration)
+	{
+		Object result = constructor.get();
+		try
+		{
+			fill.invokeExact(result, configuration);
+		}
+		catch (Throwable e)
+		{
+			throw FabricationException.rethrow(e);
+		}
+		return result;
+	}
+
+	static CompiledFabricator compile(Class<?> type)
+	{
+		if (!FabricationField.canFabricate(type))
+		{
+			return null;
+		}
+
+		try
+		{
+			// Chain every field assignment into a single straight-line handle, last field first
+			MethodHandle fill = lookup.findStatic(CompiledFabricator.class, "noFields", fillType);
+			FabricationPlan plan = FabricationPlan.peek(type);
+			for (int i = plan.fields.size() - 1; i >= 0; i--)
+			{
+				Field field = plan.fields.get(i).field;
+				if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic())
+				{
+					// Not part of the object, e.g. constants or a compiler's $assertionsDisabled
+					continue;
+				}
+
+				MethodHandle assignment = assignment(plan.fields.get(i));
+				if (assignment == null)
+				{
+					return null;
+				}
+				fill = MethodHandles.foldArguments(fill, assignment);
+			}
+
+			return new CompiledFabricator(constructor(type), fill);
+		}
+		catch (ReflectiveOperationException e)
+		{
+			return null;
+		}
+	}
+
+	static MethodHandle assignment(FabricationField field) throws ReflectiveOperationException
+	{
+		int modifiers = field.field.getModifiers();
+		if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers))
+		{
+			return null;
+		}
+
+		Class<?> type = field.type;
+		MethodHandle setter = lookup.unreflectSetter(field.field)
+		                            .asType(MethodType.methodType(void.class, Object.class, type));
+
+		MethodHandle generate = lookup.findVirtual(FabricatorConfiguration.class,
+		                                           "generate",
+		                                           MethodType.methodType(Object.class, FabricationField.class));
+		MethodHandle value = MethodHandles.insertArguments(generate, 1, field)
+		                                  .asType(MethodType.methodType(type, FabricatorConfiguration.class));
+
+		if (type.isPrimitive())
+		{
+			// Use the unboxed default unless a custom generator or a listener needs the generated value
+			String name = "default" + Character.toUpperCase(type.getName().charAt(0)) + type.getName().substring(1);
+			MethodHandle primitive = lookup.findVirtual(FabricatorConfiguration.class, name, MethodType.methodType(type));
+			MethodHandle usesBoxedGenerator = MethodHandles.insertArguments(
+					lookup.findVirtual(FabricatorConfiguration.class,
+					                   "usesBoxedGenerator",
+					                   MethodType.methodType(boolean.class, Class.class)),
+					1,
+					type);
+			value = MethodHandles.guardWithTest(usesBoxedGenerator, value, primitive);
+		}
+
+		return MethodHandles.filterArguments(setter, 1, value);
+	}
+
+	@SuppressWarnings("unchecked")
+	static Supplier<Object> constructor(Class<?> type)
+	{
+		if (Instantiators.findNoArgConstructor(type) != null)
+		{
+			try
+			{
+				// Spin a dedicated Supplier class that calls the constructor directly
+				CallSite site = LambdaMetafactory.metafactory(lookup,
+				                                              "get",
+				                                              MethodType.methodType(Supplier.class),
+				                                              MethodType.methodType(Object.class),
+				                                              lookup.findConstructor(type, MethodType.methodType(void.class)),
+				                                              MethodType.methodType(type));
+				return (Supplier<Object>) site.getTarget().invoke();
+			}
+			catch (Throwable e)
+			{
+				// Not reachable from here; the shared instantiator still works
+			}
+		}
+
+		return () -> Instantiators.newInstance(type);
+	}
+
+	private static void noFields(Object target, FabricatorConfiguration configuration)
+	{
+	}
+}
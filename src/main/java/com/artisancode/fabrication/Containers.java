@@ -0,0 +1,528 @@
+package com.artisancode.fabrication;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+// Lists, sets, maps and arrays can't be fabricated like other objects, so they are built from their (generic) declared
+// type instead: a container pre-sized for FabricatorConfiguration.containerSize elements, each one generated like a
+// field of the element type would be
+final class Containers
+{
+	private Containers()
+	{
+	}
+
+	// How to build one container type; resolved once per field (or per raw class) and reused
+	abstract static class Spec
+	{
+		abstract Object create(FabricatorConfiguration configuration, String name);
+	}
+
+	// Null when the type isn't a supported container
+	static Spec of(Type type)
+	{
+		if (type instanceof GenericArrayType)
+		{
+			Type component = ((GenericArrayType) type).getGenericComponentType();
+			return new ArraySpec(raw(component), element(component));
+		}
+
+		Class<?> raw = raw(type);
+		if (raw.isArray())
+		{
+			return new ArraySpec(raw.getComponentType(), element(raw.getComponentType()));
+		}
+
+		Type[] arguments = type instanceof ParameterizedType ? ((ParameterizedType) type).getActualTypeArguments() : new Type[0];
+		if (Map.class.isAssignableFrom(raw))
+		{
+			IntFunction<Map<Object, Object>> factory = mapFactory(raw);
+			if (factory == null)
+			{
+				return null;
+			}
+
+			Element key = element(arguments.length == 2 ? arguments[0] : Object.class);
+			if (SortedMap.class.isAssignableFrom(raw))
+			{
+				key = sortable(key);
+			}
+			Element value = element(arguments.length == 2 ? arguments[1] : Object.class);
+			return new MapSpec(factory, key, value, raw == Map.class);
+		}
+
+		if (Collection.class.isAssignableFrom(raw) || raw == Iterable.class)
+		{
+			IntFunction<Collection<Object>> factory = collectionFactory(raw);
+			if (factory == null)
+			{
+				return null;
+			}
+
+			Element element = element(arguments.length == 1 ? arguments[0] : Object.class);
+			if (SortedSet.class.isAssignableFrom(raw))
+			{
+				element = sortable(element);
+			}
+			// Only the interfaces can be swapped for a lazy implementation
+			boolean lazy = raw == List.class || raw == Collection.class || raw == Iterable.class || raw == Set.class;
+			return new CollectionSpec(factory, element, lazy, raw == Set.class);
+		}
+
+		return null;
+	}
+
+	// Sorted containers are built in natural order, so elements that aren't Comparable would fail on the first add; they
+	// are treated like an unknown element type instead, which leaves the container empty
+	static Element sortable(Element element)
+	{
+		return element.container == null && Comparable.class.isAssignableFrom(element.type) ? element : new Element(Object.class, null);
+	}
+
+	static IntFunction<Collection<Object>> collectionFactory(Class<?> raw)
+	{
+		if (raw == List.class || raw == Collection.class || raw == Iterable.class || raw == ArrayList.class || raw == AbstractList.class)
+		{
+			return ArrayList::new;
+		}
+		if (raw == LinkedList.class)
+		{
+			return size -> new LinkedList<>();
+		}
+		if (raw == Set.class || raw == HashSet.class)
+		{
+			return size -> new HashSet<>(capacity(size));
+		}
+		if (raw == LinkedHashSet.class)
+		{
+			return size -> new LinkedHashSet<>(capacity(size));
+		}
+		if (raw == SortedSet.class || raw == NavigableSet.class || raw == TreeSet.class)
+		{
+			return size -> new TreeSet<>();
+		}
+		if (raw == Queue.class || raw == Deque.class || raw == ArrayDeque.class)
+		{
+			return ArrayDeque::new;
+		}
+		return null;
+	}
+
+	static IntFunction<Map<Object, Object>> mapFactory(Class<?> raw)
+	{
+		if (raw == Map.class || raw == HashMap.class)
+		{
+			return size -> new HashMap<>(capacity(size));
+		}
+		if (raw == LinkedHashMap.class)
+		{
+			return size -> new LinkedHashMap<>(capacity(size));
+		}
+		if (raw == SortedMap.class || raw == NavigableMap.class || raw == TreeMap.class)
+		{
+			return size -> new TreeMap<>();
+		}
+		if (raw == ConcurrentMap.class || raw == ConcurrentHashMap.class)
+		{
+			return ConcurrentHashMap::new;
+		}
+		return null;
+	}
+
+	static int capacity(int size)
+	{
+		// Large enough that filling the hash container never resizes it
+		return Math.max(16, (int) (size / 0.75f) + 1);
+	}
+
+	static Class<?> raw(Type type)
+	{
+		if (type instanceof Class)
+		{
+			return (Class<?>) type;
+		}
+		if (type instanceof ParameterizedType)
+		{
+			return raw(((ParameterizedType) type).getRawType());
+		}
+		if (type instanceof GenericArrayType)
+		{
+			return Array.newInstance(raw(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+		}
+		if (type instanceof WildcardType)
+		{
+			return raw(((WildcardType) type).getUpperBounds()[0]);
+		}
+		if (type instanceof TypeVariable)
+		{
+			Type[] bounds = ((TypeVariable<?>) type).getBounds();
+			return bounds.length > 0 ? raw(bounds[0]) : Object.class;
+		}
+		return Object.class;
+	}
+
+	// The first element is named after the field like a plain field would be, the rest get their index appended
+	static String elementName(String name, int index)
+	{
+		return index == 0 || name == null ? name : name + "[" + index + "]";
+	}
+
+	static Element element(Type type)
+	{
+		return new Element(raw(type), of(type));
+	}
+
+	// One element (or key, or value) of a container: either a nested container or a generated value
+	static class Element
+	{
+		final Class<?> type;
+		final Spec container;
+
+		Element(Class<?> type, Spec container)
+		{
+			this.type = type;
+			this.container = container;
+		}
+
+		Object create(FabricatorConfiguration configuration, String name)
+		{
+			if (container != null)
+			{
+				return container.create(configuration, name);
+			}
+
+			// Nothing sensible can be generated for an unknown element type, leave the container empty instead
+			return type == Object.class ? null : configuration.generate(type, name);
+		}
+	}
+
+	static class CollectionSpec extends Spec
+	{
+		final IntFunction<Collection<Object>> factory;
+		final Element element;
+		final boolean lazy;
+		final boolean set;
+
+		CollectionSpec(IntFunction<Collection<Object>> factory, Element element, boolean lazy, boolean set)
+		{
+			this.factory = factory;
+			this.element = element;
+			this.lazy = lazy;
+			this.set = set;
+		}
+
+		@Override
+		Object create(FabricatorConfiguration configuration, String name)
+		{
+			if (lazy && configuration.lazyContainers)
+			{
+				// Filled later, but still as part of the graph the container belongs to
+				FabricationGraph graph = FabricationGraph.current();
+				Supplier<Collection<Object>> fill = () -> FabricationGraph.within(graph, () -> fill(configuration, name));
+				return set ? new LazySet(fill) : new LazyList(fill);
+			}
+
+			return fill(configuration, name);
+		}
+
+		Collection<Object> fill(FabricatorConfiguration configuration, String name)
+		{
+			int size = configuration.containerSize;
+			Collection<Object> result = factory.apply(size);
+			for (int i = 0; i < size; i++)
+			{
+				Object value = element.create(configuration.forElement(i), elementName(name, i));
+				if (value == null)
+				{
+					break;
+				}
+				result.add(value);
+			}
+
+			if (configuration.tracksGraph())
+			{
+				FabricationGraph.charge(ObjectSizes.estimateContainer(this, result.size()));
+			}
+			return result;
+		}
+	}
+
+	static class MapSpec extends Spec
+	{
+		final IntFunction<Map<Object, Object>> factory;
+		final Element key;
+		final Element value;
+		final boolean lazy;
+
+		MapSpec(IntFunction<Map<Object, Object>> factory, Element key, Element value, boolean lazy)
+		{
+			this.factory = factory;
+			this.key = key;
+			this.value = value;
+			this.lazy = lazy;
+		}
+
+		@Override
+		Object create(FabricatorConfiguration configuration, String name)
+		{
+			if (lazy && configuration.lazyContainers)
+			{
+				FabricationGraph graph = FabricationGraph.current();
+				return new LazyMap(() -> FabricationGraph.within(graph, () -> fill(configuration, name)));
+			}
+
+			return fill(configuration, name);
+		}
+
+		Map<Object, Object> fill(FabricatorConfiguration configuration, String name)
+		{
+			int size = configuration.containerSize;
+			Map<Object, Object> result = factory.apply(size);
+			for (int i = 0; i < size; i++)
+			{
+				FabricatorConfiguration entry = configuration.forElement(i);
+				Object entryKey = key.create(entry, elementName(name, i));
+				Object entryValue = value.create(entry, elementName(name, i));
+				if (entryKey == null || entryValue == null)
+				{
+					break;
+				}
+				result.put(entryKey, entryValue);
+			}
+
+			if (configuration.tracksGraph())
+			{
+				FabricationGraph.charge(ObjectSizes.estimateContainer(this, result.size()));
+			}
+			return result;
+		}
+	}
+
+	static class ArraySpec extends Spec
+	{
+		final Class<?> component;
+		final Element element;
+
+		ArraySpec(Class<?> component, Element element)
+		{
+			this.component = component;
+			this.element = element;
+		}
+
+		@Override
+		Object create(FabricatorConfiguration configuration, String name)
+		{
+			int size = configuration.containerSize;
+			Object result = Array.newInstance(component, size);
+			if (configuration.tracksGraph())
+			{
+				// Charged up front, since the whole array exists before any element is built
+				FabricationGraph.charge(ObjectSizes.estimateArray(component, size));
+			}
+
+			for (int i = 0; i < size; i++)
+			{
+				Object value = element.create(configuration.forElement(i), elementName(name, i));
+				if (value != null)
+				{
+					Array.set(result, i, value);
+				}
+			}
+			return result;
+		}
+	}
+
+	// Lazy containers only build their contents the first time they are used
+	static final class Lazy<T>
+	{
+		private Supplier<T> fill;
+		private volatile T contents;
+
+		Lazy(Supplier<T> fill)
+		{
+			this.fill = fill;
+		}
+
+		T get()
+		{
+			T result = contents;
+			if (result == null)
+			{
+				synchronized (this)
+				{
+					result = contents;
+					if (result == null)
+					{
+						result = fill.get();
+						contents = result;
+						fill = null;
+					}
+				}
+			}
+			return result;
+		}
+	}
+
+	static final class LazyList extends AbstractList<Object> implements RandomAccess
+	{
+		private final Lazy<Collection<Object>> contents;
+
+		LazyList(Supplier<Collection<Object>> fill)
+		{
+			contents = new Lazy<>(fill);
+		}
+
+		private List<Object> list()
+		{
+			return (List<Object>) contents.get();
+		}
+
+		@Override
+		public Object get(int index)
+		{
+			return list().get(index);
+		}
+
+		@Override
+		public Object set(int index, Object element)
+		{
+			return list().set(index, element);
+		}
+
+		@Override
+		public void add(int index, Object element)
+		{
+			list().add(index, element);
+		}
+
+		@Override
+		public Object remove(int index)
+		{
+			return list().remove(index);
+		}
+
+		@Override
+		public int size()
+		{
+			return list().size();
+		}
+	}
+
+	static final class LazySet extends AbstractSet<Object>
+	{
+		private final Lazy<Collection<Object>> contents;
+
+		LazySet(Supplier<Collection<Object>> fill)
+		{
+			contents = new Lazy<>(fill);
+		}
+
+		@Override
+		public boolean add(Object element)
+		{
+			return contents.get().add(element);
+		}
+
+		@Override
+		public boolean contains(Object element)
+		{
+			return contents.get().contains(element);
+		}
+
+		@Override
+		public boolean remove(Object element)
+		{
+			return contents.get().remove(element);
+		}
+
+		@Override
+		public Iterator<Object> iterator()
+		{
+			return contents.get().iterator();
+		}
+
+		@Override
+		public int size()
+		{
+			return contents.get().size();
+		}
+	}
+
+	static final class LazyMap extends AbstractMap<Object, Object>
+	{
+		private final Lazy<Map<Object, Object>> contents;
+
+		LazyMap(Supplier<Map<Object, Object>> fill)
+		{
+			contents = new Lazy<>(fill);
+		}
+
+		@Override
+		public Object get(Object key)
+		{
+			return contents.get().get(key);
+		}
+
+		@Override
+		public boolean containsKey(Object key)
+		{
+			return contents.get().containsKey(key);
+		}
+
+		@Override
+		public Object put(Object key, Object value)
+		{
+			return contents.get().put(key, value);
+		}
+
+		@Override
+		public Object remove(Object key)
+		{
+			return contents.get().remove(key);
+		}
+
+		@Override
+		public Set<Entry<Object, Object>> entrySet()
+		{
+			return contents.get().entrySet();
+		}
+
+		@Override
+		public int size()
+		{
+			return contents.get().size();
+		}
+	}
+}
@@ -0,0 +1,156 @@
+package com.artisancode.fabrication;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+// RFC 4180 CSV with a header row of field names; nulls are written as empty values. Nested objects are flattened into
+// dotted columns (e.g. address.street) down to the configuration's recursion limit, below which they are always null.
+// Lists, sets, maps and arrays are written as JSON, so every value reads the same from one run to the next
+public class CsvDatasetWriter extends DatasetWriter
+{
+	// Only its value encoding is used
+	private final JsonLinesDatasetWriter json = new JsonLinesDatasetWriter(16);
+	private final StringBuilder value = new StringBuilder();
+	private List<Column> flattened = new ArrayList<>();
+
+	public CsvDatasetWriter()
+	{
+	}
+
+	public CsvDatasetWriter(int bufferSize)
+	{
+		super(bufferSize);
+	}
+
+	@Override
+	protected void begin(CollectionBuilder<?> builder)
+	{
+		FabricatorConfiguration configuration = builder.configuration;
+		flattened = new ArrayList<>();
+		flatten(builder.target, "", new FabricationField[0], configuration.recursive ? configuration.recurseLimit : 0, flattened);
+	}
+
+	static void flatten(Class<?> type, String prefix, FabricationField[] path, int levels, List<Column> out)
+	{
+		for (FabricationField field : columns(FabricationPlan.peek(type)))
+		{
+			FabricationField[] fieldPath = Arrays.copyOf(path, path.length + 1);
+			fieldPath[path.length] = field;
+
+			if (!isNested(field.type))
+			{
+				out.add(new Column(prefix + field.name, fieldPath));
+			}
+			else if (levels > 0)
+			{
+				flatten(field.type, prefix + field.name + ".", fieldPath, levels - 1, out);
+			}
+		}
+	}
+
+	static boolean isNested(Class<?> type)
+	{
+		return type.getClassLoader() != null && !type.isArray() && !Collection.class.isAssignableFrom(type)
+				       && !Map.class.isAssignableFrom(type) && FabricationField.canFabricate(type);
+	}
+
+	@Override
+	protected void header(List<FabricationField> columns, StringBuilder out)
+	{
+		for (int i = 0; i < flattened.size(); i++)
+		{
+			if (i > 0)
+			{
+				out.append(',');
+			}
+			appendValue(flattened.get(i).name, out);
+		}
+		out.append("\r\n");
+	}
+
+	@Override
+	protected void record(List<FabricationField> columns, Object element, StringBuilder out)
+	{
+		for (int i = 0; i < flattened.size(); i++)
+		{
+			if (i > 0)
+			{
+				out.append(',');
+			}
+
+			Object current = flattened.get(i).get(element);
+			if (current != null)
+			{
+				appendValue(text(current), out);
+			}
+		}
+		out.append("\r\n");
+	}
+
+	protected String text(Object current)
+	{
+		if (!(current instanceof Collection || current instanceof Map || current.getClass().isArray()))
+		{
+			return String.valueOf(current);
+		}
+
+		value.setLength(0);
+		json.path.clear();
+		json.appendValue(current, value);
+		return value.toString();
+	}
+
+	static void appendValue(String value, StringBuilder out)
+	{
+		boolean quote = false;
+		for (int i = 0; i < value.length() && !quote; i++)
+		{
+			char c = value.charAt(i);
+			quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+		}
+
+		if (!quote)
+		{
+			out.append(value);
+			return;
+		}
+
+		out.append('"');
+		for (int i = 0; i < value.length(); i++)
+		{
+			char c = value.charAt(i);
+			if (c == '"')
+			{
+				out.append('"');
+			}
+			out.append(c);
+		}
+		out.append('"');
+	}
+
+	// One flattened column: the fields to follow from the element to the value
+	static class Column
+	{
+		final String name;
+		final FabricationField[] path;
+
+		Column(String name, FabricationField[] path)
+		{
+			this.name = name;
+			this.path = path;
+		}
+
+		Object get(Object element)
+		{
+			Object result = element;
+			for (int i = 0; i < path.length && result != null; i++)
+			{
+				result = path[i].get(result);
+			}
+			return result;
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package com.artisancode.fabrication;
+
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+// Fabricates a collection one element at a time and encodes each element straight into a channel, so a dataset never
+// has to be held in memory. Columns/fields are written in the order of the element's fabrication plan. A writer reuses its
+// buffers, so it can write one dataset at a time
+public abstract class DatasetWriter
+{
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+	protected final ByteBuffer buffer;
+	protected final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+	// Reused for every record
+	protected final StringBuilder record = new StringBuilder();
+
+	protected DatasetWriter()
+	{
+		this(DEFAULT_BUFFER_SIZE);
+	}
+
+	protected DatasetWriter(int bufferSize)
+	{
+		if (bufferSize < 16)
+		{
+			throw new FabricationException(String.format("Unable to write with a buffer of %d bytes as it needs to be at least 16 bytes", bufferSize));
+		}
+
+		buffer = ByteBuffer.allocateDirect(bufferSize);
+	}
+
+	public <T> void write(CollectionBuilder<T> builder, WritableByteChannel channel) throws IOException
+	{
+		List<FabricationField> columns = columns(FabricationPlan.peek(builder.target));
+		begin(builder);
+
+		buffer.clear();
+		record.setLength(0);
+		header(columns, record);
+		emit(channel);
+
+		// The iterator fabricates lazily, so only the element being encoded is ever alive
+		Iterator<T> elements = builder.iterator();
+		while (elements.hasNext())
+		{
+			record.setLength(0);
+			record(columns, elements.next(), record);
+			emit(channel);
+		}
+
+		flush(channel);
+	}
+
+	// Called before anything is written, for writers whose layout depends on the builder
+	protected void begin(CollectionBuilder<?> builder)
+	{
+	}
+
+	protected abstract void header(List<FabricationField> columns, StringBuilder out);
+
+	// Appends one encoded element, including its line terminator
+	protected abstract void record(List<FabricationField> columns, Object element, StringBuilder out);
+
+	static List<FabricationField> columns(FabricationPlan plan)
+	{
+		List<FabricationField> result = new ArrayList<>(plan.fields.size());
+		for (FabricationField field : plan.fields)
+		{
+			if (!Modifier.isStatic(field.field.getModifiers()))
+			{
+				result.add(field);
+			}
+		}
+		return result;
+	}
+
+	protected void emit(WritableByteChannel channel) throws IOException
+	{
+		if (record.length() == 0)
+		{
+			return;
+		}
+
+		CharBuffer chars = CharBuffer.wrap(record);
+		encoder.reset();
+		while (true)
+		{
+			CoderResult result = encoder.encode(chars, buffer, true);
+			if (result.isOverflow())
+			{
+				flush(channel);
+			}
+			else if (result.isUnderflow())
+			{
+				break;
+			}
+			else
+			{
+				result.throwException();
+			}
+		}
+
+		while (encoder.flush(buffer).isOverflow())
+		{
+			flush(channel);
+		}
+	}
+
+	protected void flush(WritableByteChannel channel) throws IOException
+	{
+		buffer.flip();
+		while (buffer.hasRemaining())
+		{
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+}
@@ -0,0 +1,13 @@
+package com.artisancode.fabrication;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marks a type for the fabrication-processor, which generates a GeneratedFabricator for it at compile time
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface Fabricate
+{
+}
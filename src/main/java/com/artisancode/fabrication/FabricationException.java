@@ -11,4 +11,20 @@ public class FabricationException extends RuntimeException
 	{
 		super(message);
 	}
+
+	static RuntimeException rethrow(Throwable e)
+	{
+		if (e instanceof RuntimeException)
+		{
+			throw (RuntimeException) e;
+		}
+
+		if (e instanceof Error)
+		{
+			throw (Error) e;
+		}
+
+		// Anything left is a checked exception
+		throw new FabricationException((Exception) e);
+	}
 }
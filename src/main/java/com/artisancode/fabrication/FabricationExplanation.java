@@ -0,0 +1,402 @@
+package com.artisancode.fabrication;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// What fabricating a type would cost with a configuration, worked out from the cached field plans without building
+// anything: how many objects each element needs at every depth, an estimate of their shallow size and where each
+// field's value comes from. Budgets aren't applied, so the numbers are what an unlimited graph would use
+public class FabricationExplanation
+{
+	protected final Class<?> target;
+	protected final int elements;
+	protected final long[] objectsPerDepth;
+	protected final long estimatedBytesPerElement;
+	protected final List<FieldExplanation> fields;
+
+	protected FabricationExplanation(Class<?> target, FabricatorConfiguration configuration, int elements)
+	{
+		this.target = target;
+		this.elements = elements;
+
+		Summary summary = new Walk(configuration.forFabrication()).explainRoot(target);
+		this.objectsPerDepth = summary.objectsPerDepth;
+		this.estimatedBytesPerElement = summary.estimatedBytes;
+
+		List<FieldExplanation> resolvedFields = new ArrayList<>(summary.fields.size());
+		for (Map.Entry<FieldKey, Long> entry : summary.fields.entrySet())
+		{
+			resolvedFields.add(new FieldExplanation(entry.getKey(), entry.getValue()));
+		}
+		this.fields = Collections.unmodifiableList(resolvedFields);
+	}
+
+	public static FabricationExplanation of(Class<?> target, FabricatorConfiguration configuration)
+	{
+		return new FabricationExplanation(target, configuration, 1);
+	}
+
+	static FabricationExplanation of(Class<?> target, FabricatorConfiguration configuration, int elements)
+	{
+		return new FabricationExplanation(target, configuration, elements);
+	}
+
+	public Class<?> getTarget()
+	{
+		return target;
+	}
+
+	// 1 for a single object, the collection size for a CollectionBuilder
+	public int getElements()
+	{
+		return elements;
+	}
+
+	public long getObjectsPerElement()
+	{
+		long result = 0;
+		for (long objects : objectsPerDepth)
+		{
+			result += objects;
+		}
+		return result;
+	}
+
+	public long getObjects()
+	{
+		return getObjectsPerElement() * elements;
+	}
+
+	public long getEstimatedBytesPerElement()
+	{
+		return estimatedBytesPerElement;
+	}
+
+	public long getEstimatedBytes()
+	{
+		return estimatedBytesPerElement * elements;
+	}
+
+	// Index 0 is the element itself, index 1 the objects its fields reference and so on
+	public long[] getObjectsPerDepth()
+	{
+		return objectsPerDepth.clone();
+	}
+
+	// How many objects each object at the depth leads to one level down
+	public double getFanOut(int depth)
+	{
+		if (depth < 0 || depth + 1 >= objectsPerDepth.length)
+		{
+			return 0;
+		}
+		return (double) objectsPerDepth[depth + 1] / objectsPerDepth[depth];
+	}
+
+	public List<FieldExplanation> getFields()
+	{
+		return fields;
+	}
+
+	public boolean exceeds(FabricatorConfiguration configuration)
+	{
+		configuration = configuration.forFabrication();
+		return (configuration.maxObjects > 0 && getObjectsPerElement() > configuration.maxObjects)
+				       || (configuration.maxEstimatedBytes > 0 && estimatedBytesPerElement > configuration.maxEstimatedBytes);
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder result = new StringBuilder();
+		result.append(String.format("%s x %d: %d objects, ~%d bytes (%d objects, ~%d bytes per element)%n",
+		                            target.getSimpleName(), elements, getObjects(), getEstimatedBytes(),
+		                            getObjectsPerElement(), estimatedBytesPerElement));
+		for (int depth = 0; depth < objectsPerDepth.length; depth++)
+		{
+			result.append(String.format("  depth %d: %d objects", depth, objectsPerDepth[depth]));
+			if (depth > 0)
+			{
+				result.append(String.format(" (fan-out %.1f)", getFanOut(depth - 1)));
+			}
+			result.append(System.lineSeparator());
+		}
+		for (FieldExplanation field : fields)
+		{
+			result.append("  ").append(field).append(System.lineSeparator());
+		}
+		return result.toString();
+	}
+
+	// One field of one type and where its values come from, with how many times that happens per element
+	public static class FieldExplanation
+	{
+		protected final Class<?> owner;
+		protected final FabricationField field;
+		protected final FieldOutcome outcome;
+		protected final long count;
+
+		FieldExplanation(FieldKey key, long count)
+		{
+			this.owner = key.owner;
+			this.field = key.field;
+			this.outcome = key.outcome;
+			this.count = count;
+		}
+
+		public Class<?> getOwner()
+		{
+			return owner;
+		}
+
+		public String getName()
+		{
+			return field.name;
+		}
+
+		public Class<?> getType()
+		{
+			return field.type;
+		}
+
+		public FieldOutcome getOutcome()
+		{
+			return outcome;
+		}
+
+		public long getCount()
+		{
+			return count;
+		}
+
+		@Override
+		public String toString()
+		{
+			return String.format("%s.%s (%s): %s x %d", owner.getSimpleName(), field.name, field.type.getSimpleName(), outcome, count);
+		}
+	}
+
+	static final class FieldKey
+	{
+		final Class<?> owner;
+		final FabricationField field;
+		final FieldOutcome outcome;
+
+		FieldKey(Class<?> owner, FabricationField field, FieldOutcome outcome)
+		{
+			this.owner = owner;
+			this.field = field;
+			this.outcome = outcome;
+		}
+
+		@Override
+		public boolean equals(Object other)
+		{
+			if (!(other instanceof FieldKey))
+			{
+				return false;
+			}
+			FieldKey key = (FieldKey) other;
+			return owner == key.owner && field == key.field && outcome == key.outcome;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return (owner.hashCode() * 31 + field.hashCode()) * 31 + outcome.hashCode();
+		}
+	}
+
+	// Everything one object leads to; depths are relative to the object
+	static final class Summary
+	{
+		long[] objectsPerDepth = {1};
+		long estimatedBytes;
+		final Map<FieldKey, Long> fields = new LinkedHashMap<>();
+
+		void add(Summary child)
+		{
+			if (objectsPerDepth.length < child.objectsPerDepth.length + 1)
+			{
+				objectsPerDepth = Arrays.copyOf(objectsPerDepth, child.objectsPerDepth.length + 1);
+			}
+			for (int i = 0; i < child.objectsPerDepth.length; i++)
+			{
+				objectsPerDepth[i + 1] += child.objectsPerDepth[i];
+			}
+			estimatedBytes += child.estimatedBytes;
+			child.fields.forEach((key, count) -> fields.merge(key, count, Long::sum));
+		}
+	}
+
+	// Mirrors FabricatorConfiguration.generate. Without instance sharing every object of a type at a depth leads to the
+	// same objects, so each one is only walked once; with it the walk follows the graph in the order it is built
+	static final class Walk
+	{
+		final FabricatorConfiguration root;
+		final Map<FabricatorConfiguration, Map<Class<?>, Summary>> summaries = new IdentityHashMap<>();
+		final List<Class<?>> building = new ArrayList<>();
+		final Set<List<Object>> shared = new HashSet<>();
+
+		Walk(FabricatorConfiguration root)
+		{
+			this.root = root;
+		}
+
+		Summary explainRoot(Class<?> target)
+		{
+			return explainObject(target, root);
+		}
+
+		Summary explainObject(Class<?> type, FabricatorConfiguration configuration)
+		{
+			boolean sharing = configuration.instanceSharing != InstanceSharing.NONE;
+			Map<Class<?>, Summary> known = sharing ? null : summaries.computeIfAbsent(configuration, x -> new HashMap<>());
+			Summary result = known == null ? null : known.get(type);
+			if (result != null)
+			{
+				return result;
+			}
+
+			result = new Summary();
+			result.estimatedBytes = ObjectSizes.estimate(type);
+			building.add(type);
+			for (FabricationField field : FabricationPlan.peek(type).fields)
+			{
+				FieldOutcome outcome = field.container != null && configuration.resolve(field.type).generator == null
+						                       ? explainContainer(field.container, field.name, configuration, result)
+						                       : explainValue(field.type, field.name, configuration, result);
+				result.fields.merge(new FieldKey(type, field, outcome), 1L, Long::sum);
+			}
+			building.remove(building.size() - 1);
+
+			if (known != null)
+			{
+				known.put(type, result);
+			}
+			return result;
+		}
+
+		FieldOutcome explainValue(Class<?> type, String name, FabricatorConfiguration configuration, Summary owner)
+		{
+			if (type == String.class && configuration.useFieldNameForString && name != null)
+			{
+				return FieldOutcome.FIELD_NAME;
+			}
+
+			GeneratorRegistry.Resolution resolution = configuration.resolve(type);
+			if (resolution.generator != null)
+			{
+				return resolution.custom ? FieldOutcome.CUSTOM_GENERATOR : FieldOutcome.GENERATOR;
+			}
+
+			if (resolution.enumConstant != null)
+			{
+				return FieldOutcome.ENUM_CONSTANT;
+			}
+
+			if (resolution.container != null)
+			{
+				return explainContainer(resolution.container, name, configuration, owner);
+			}
+
+			InstanceSharing sharing = configuration.instanceSharing;
+			List<Object> sharedKey = Arrays.asList(type, sharing == InstanceSharing.PER_TYPE ? -1 : configuration.depth + 1);
+			if (resolution.fabricatable && configuration.recursive && sharing != InstanceSharing.NONE
+					    && (building.contains(type) || shared.contains(sharedKey)))
+			{
+				return FieldOutcome.SHARED;
+			}
+
+			boolean shouldFabricate = configuration.recursive && configuration.recurseLimit > 0;
+			if (configuration.lazyProxies && shouldFabricate && LazyProxy.canProxy(type))
+			{
+				return FieldOutcome.LAZY_PROXY;
+			}
+
+			if (resolution.fabricatable && shouldFabricate)
+			{
+				owner.add(explainObject(type, configuration.cloneForNextGeneration()));
+				if (sharing != InstanceSharing.NONE)
+				{
+					shared.add(sharedKey);
+				}
+				return FieldOutcome.FABRICATED;
+			}
+
+			return FieldOutcome.NULL;
+		}
+
+		FieldOutcome explainContainer(Containers.Spec container, String name, FabricatorConfiguration configuration, Summary owner)
+		{
+			int size = configuration.containerSize;
+			if (container instanceof Containers.ArraySpec)
+			{
+				Containers.ArraySpec array = (Containers.ArraySpec) container;
+				owner.estimatedBytes += ObjectSizes.estimateArray(array.component, size);
+				for (int i = 0; i < size; i++)
+				{
+					explainElement(array.element, name, configuration, owner);
+				}
+				return FieldOutcome.CONTAINER;
+			}
+
+			if (container instanceof Containers.CollectionSpec)
+			{
+				Containers.CollectionSpec collection = (Containers.CollectionSpec) container;
+				if (collection.lazy && configuration.lazyContainers)
+				{
+					return FieldOutcome.LAZY_CONTAINER;
+				}
+
+				// Like the real fill, a collection stops at the first element that can't be generated
+				int filled = 0;
+				while (filled < size && explainElement(collection.element, name, configuration, owner) != FieldOutcome.NULL)
+				{
+					filled++;
+				}
+				owner.estimatedBytes += ObjectSizes.estimateContainer(container, filled);
+				return FieldOutcome.CONTAINER;
+			}
+
+			Containers.MapSpec map = (Containers.MapSpec) container;
+			if (map.lazy && configuration.lazyContainers)
+			{
+				return FieldOutcome.LAZY_CONTAINER;
+			}
+
+			int filled = 0;
+			while (filled < size)
+			{
+				// Both halves of an entry are generated before either is checked
+				FieldOutcome key = explainElement(map.key, name, configuration, owner);
+				FieldOutcome value = explainElement(map.value, name, configuration, owner);
+				if (key == FieldOutcome.NULL || value == FieldOutcome.NULL)
+				{
+					break;
+				}
+				filled++;
+			}
+			owner.estimatedBytes += ObjectSizes.estimateContainer(container, filled);
+			return FieldOutcome.CONTAINER;
+		}
+
+		FieldOutcome explainElement(Containers.Element element, String name, FabricatorConfiguration configuration, Summary owner)
+		{
+			if (element.container != null)
+			{
+				return explainContainer(element.container, name, configuration, owner);
+			}
+
+			return element.type == Object.class ? FieldOutcome.NULL : explainValue(element.type, name, configuration, owner);
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package com.artisancode.fabrication;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+public class FabricationField
+{
+	protected final Field field;
+	protected final Class<?> type;
+	protected final String name;
+	// Resolved from the generic type once, null unless the field is a list, set, map or array
+	protected final Containers.Spec container;
+
+	public FabricationField(Field field)
+	{
+		this.field = field;
+		this.type = field.getType();
+		this.name = field.getName();
+		this.container = Containers.of(field.getGenericType());
+	}
+
+	public Field getField()
+	{
+		return field;
+	}
+
+	public Class<?> getType()
+	{
+		return type;
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+
+	Object get(Object target)
+	{
+		try
+		{
+			return field.get(target);
+		}
+		catch (IllegalAccessException e)
+		{
+			throw new FabricationException(e);
+		}
+	}
+
+	void set(Object target, Object value)
+	{
+		try
+		{
+			field.set(target, value);
+		}
+		catch (IllegalAccessException e)
+		{
+			throw new FabricationException(e);
+		}
+	}
+
+	static Object firstEnumConstant(Class<?> type)
+	{
+		if (!type.isEnum())
+		{
+			return null;
+		}
+
+		// Default the value to the first value in the Enum
+		Object[] constants = type.getEnumConstants();
+		return constants.length > 0 ? constants[0] : null;
+	}
+
+	static boolean canFabricate(Class<?> type)
+	{
+		// We can't fabricate enums, interfaces or abstract classes
+		return !type.isEnum() && !type.isInterface() && !Modifier.isAbstract(type.getModifiers());
+	}
+}
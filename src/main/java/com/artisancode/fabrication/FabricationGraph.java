@@ -0,0 +1,221 @@
+package com.artisancode.fabrication;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// One object graph, i.e. everything built by one top level fabricate() call, tracked on the current thread since
+// generate has no other way to know which graph it is filling. Only tracked when something needs it: instance sharing,
+// a budget or a listener
+final class FabricationGraph
+{
+	private static final ThreadLocal<FabricationGraph> graphs = new ThreadLocal<>();
+
+	// The root's configuration, which holds the budget
+	private final FabricatorConfiguration configuration;
+	private final SharedInstances shared;
+	// The objects whose fields are being filled, outermost first
+	private final List<Object> building = new ArrayList<>();
+	// The last completed object of each type, for BudgetFallback.SHARED
+	private final Map<Class<?>, Object> completed;
+	private long objects;
+	private long estimatedBytes;
+	private boolean exhausted;
+
+	private FabricationGraph(FabricatorConfiguration configuration, SharedInstances shared)
+	{
+		this.configuration = configuration;
+		this.shared = configuration.instanceSharing == InstanceSharing.NONE ? null
+				              : shared != null ? shared : new SharedInstances(configuration.instanceSharing);
+		this.completed = configuration.hasBudget() && configuration.budgetFallback == BudgetFallback.SHARED ? new HashMap<>() : null;
+	}
+
+	static <T> T create(ObjectBuilder<T> builder)
+	{
+		return track(builder.configuration, builder.sharedInstances, builder.target,
+		             graph -> graph.shared == null ? builder.createUntracked() : graph.createShared(builder));
+	}
+
+	// Refills an existing object as part of the graph, like create builds a new one: it counts towards the budget and,
+	// with sharing on, is shared like a new object would be
+	static <T> T refill(T instance, FabricatorConfiguration configuration, SharedInstances sharedInstances, Runnable fill)
+	{
+		return track(configuration, sharedInstances, instance.getClass(), graph -> graph.build(instance, fill));
+	}
+
+	private static <T> T track(FabricatorConfiguration configuration, SharedInstances sharedInstances, Class<?> type,
+	                           Function<FabricationGraph, T> build)
+	{
+		FabricationGraph graph = graphs.get();
+		boolean root = graph == null;
+		if (root)
+		{
+			graph = new FabricationGraph(configuration, sharedInstances);
+			graphs.set(graph);
+		}
+
+		T result;
+		try
+		{
+			graph.objects++;
+			graph.estimatedBytes += ObjectSizes.estimate(type);
+			result = build.apply(graph);
+		}
+		finally
+		{
+			if (root)
+			{
+				graphs.remove();
+			}
+		}
+
+		// The object that was asked for is never shared
+		if (graph.shared != null && !root)
+		{
+			graph.shared.publish(result, configuration.depth);
+		}
+
+		if (graph.completed != null)
+		{
+			graph.completed.put(result.getClass(), result);
+		}
+
+		FabricationListener listener = configuration.listener;
+		if (root && listener != null)
+		{
+			listener.graphFabricated(type, graph.objects, graph.estimatedBytes, graph.exhausted);
+		}
+		return result;
+	}
+
+	// The graph being built on this thread, if it is tracked
+	static FabricationGraph current()
+	{
+		return graphs.get();
+	}
+
+	// Runs work that finishes a graph later, e.g. filling a lazy container, as part of that graph so that sharing and
+	// budgets still apply. The graph isn't thread safe, so the work holds its lock
+	static <T> T within(FabricationGraph graph, Supplier<T> work)
+	{
+		FabricationGraph previous = graphs.get();
+		if (graph == null || previous == graph)
+		{
+			return work.get();
+		}
+
+		synchronized (graph)
+		{
+			graphs.set(graph);
+			try
+			{
+				return work.get();
+			}
+			finally
+			{
+				if (previous == null)
+				{
+					graphs.remove();
+				}
+				else
+				{
+					graphs.set(previous);
+				}
+			}
+		}
+	}
+
+	private <T> T createShared(ObjectBuilder<T> builder)
+	{
+		T result = Instantiators.newInstance(builder.target);
+		return build(result, () -> ObjectBuilder.writeFields(result, builder.configuration));
+	}
+
+	// The object is visible to its own fields (for cycles) before they are filled, so generated and compiled code
+	// can't be used to fill it
+	private <T> T build(T instance, Runnable fill)
+	{
+		building.add(instance);
+		try
+		{
+			fill.run();
+		}
+		finally
+		{
+			building.remove(building.size() - 1);
+		}
+		return instance;
+	}
+
+	// With instance sharing on, the object a nested field of the type should reference, or null to fabricate one
+	static Object find(Class<?> type, int depth)
+	{
+		FabricationGraph graph = graphs.get();
+		if (graph == null || graph.shared == null)
+		{
+			return null;
+		}
+
+		Object ancestor = graph.ancestor(type);
+		return ancestor != null ? ancestor : graph.shared.get(type, depth);
+	}
+
+	// Counts what a container or array adds to the graph's estimated size; its elements are counted as they are built
+	static void charge(long bytes)
+	{
+		FabricationGraph graph = graphs.get();
+		if (graph != null)
+		{
+			graph.estimatedBytes += bytes;
+		}
+	}
+
+	// False once another object of the type would go over the budget; the graph stays exhausted from then on
+	static boolean allows(Class<?> type)
+	{
+		FabricationGraph graph = graphs.get();
+		if (graph == null)
+		{
+			return true;
+		}
+
+		if (!graph.exhausted)
+		{
+			long maxObjects = graph.configuration.maxObjects;
+			long maxEstimatedBytes = graph.configuration.maxEstimatedBytes;
+			graph.exhausted = (maxObjects > 0 && graph.objects >= maxObjects)
+					                  || (maxEstimatedBytes > 0 && graph.estimatedBytes + ObjectSizes.estimate(type) > maxEstimatedBytes);
+		}
+		return !graph.exhausted;
+	}
+
+	// What a nested field of the type gets instead once the budget is exhausted. Objects still being built are only
+	// known (and so only usable) with instance sharing on
+	static Object fallback(Class<?> type)
+	{
+		FabricationGraph graph = graphs.get();
+		if (graph == null || graph.completed == null)
+		{
+			return null;
+		}
+
+		Object result = graph.completed.get(type);
+		return result != null ? result : graph.ancestor(type);
+	}
+
+	private Object ancestor(Class<?> type)
+	{
+		for (int i = building.size() - 1; i >= 0; i--)
+		{
+			Object ancestor = building.get(i);
+			if (ancestor.getClass() == type)
+			{
+				return ancestor;
+			}
+		}
+		return null;
+	}
+}
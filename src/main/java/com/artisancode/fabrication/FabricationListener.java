@@ -0,0 +1,115 @@
+package com.artisancode.fabrication;
+
+// Notified by the builders of the configuration it is registered on; every callback is optional
+public interface FabricationListener
+{
+	// Called on the same thread before the work that the matching objectFabricated (or collectionFabricated) reports
+	default void objectStarted(Class<?> type, int depth)
+	{
+	}
+
+	default void collectionStarted(Class<?> type, int size)
+	{
+	}
+
+	// depth is 0 for the object that was asked for and increases by one for every nested object below it
+	default void objectFabricated(Class<?> type, int depth, long durationNanos)
+	{
+	}
+
+	default void collectionFabricated(Class<?> type, int size, int modifications, long durationNanos)
+	{
+	}
+
+	// Once per object graph (top level fabricate() call), with what it used of the configuration's budget
+	default void graphFabricated(Class<?> type, long objects, long estimatedBytes, boolean budgetExhausted)
+	{
+	}
+
+	// A field value that came from a (custom or default) generator rather than a recursive build
+	default void generatorUsed(Class<?> type, boolean custom)
+	{
+	}
+
+	// cached is false for the lookup that built the plan
+	default void planResolved(Class<?> type, boolean cached)
+	{
+	}
+
+	// Whether graphFabricated is needed; reporting it means tracking the graph of every top level fabricate() call
+	default boolean tracksGraph()
+	{
+		return true;
+	}
+
+	static FabricationListener combine(FabricationListener first, FabricationListener second)
+	{
+		if (first == null)
+		{
+			return second;
+		}
+
+		if (second == null)
+		{
+			return first;
+		}
+
+		return new FabricationListener()
+		{
+			@Override
+			public void objectStarted(Class<?> type, int depth)
+			{
+				first.objectStarted(type, depth);
+				second.objectStarted(type, depth);
+			}
+
+			@Override
+			public void collectionStarted(Class<?> type, int size)
+			{
+				first.collectionStarted(type, size);
+				second.collectionStarted(type, size);
+			}
+
+			@Override
+			public void objectFabricated(Class<?> type, int depth, long durationNanos)
+			{
+				first.objectFabricated(type, depth, durationNanos);
+				second.objectFabricated(type, depth, durationNanos);
+			}
+
+			@Override
+			public void collectionFabricated(Class<?> type, int size, int modifications, long durationNanos)
+			{
+				first.collectionFabricated(type, size, modifications, durationNanos);
+				second.collectionFabricated(type, size, modifications, durationNanos);
+			}
+
+			@Override
+			public void graphFabricated(Class<?> type, long objects, long estimatedBytes, boolean budgetExhausted)
+			{
+				first.graphFabricated(type, objects, estimatedBytes, budgetExhausted);
+				second.graphFabricated(type, objects, estimatedBytes, budgetExhausted);
+			}
+
+			@Override
+			public void generatorUsed(Class<?> type, boolean custom)
+			{
+				first.generatorUsed(type, custom);
+				second.generatorUsed(type, custom);
+			}
+
+			@Override
+			public void planResolved(Class<?> type, boolean cached)
+			{
+				first.planResolved(type, cached);
+				second.planResolved(type, cached);
+			}
+
+			@Override
+			public boolean tracksGraph()
+			{
+				return first.tracksGraph() || second.tracksGraph();
+			}
+		};
+	}
+}
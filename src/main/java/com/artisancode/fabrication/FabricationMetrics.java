@@ -0,0 +1,211 @@
+package com.artisancode.fabrication;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Low overhead counters for everything a FabricationListener is told, safe to share between threads
+public class FabricationMetrics implements FabricationListener
+{
+	// Bucket i counts fabrications that took between 2^i and 2^(i+1) nanoseconds
+	public static final int HISTOGRAM_BUCKETS = 64;
+
+	protected final ConcurrentHashMap<Class<?>, LongAdder> objectsPerClass = new ConcurrentHashMap<>();
+	protected final ConcurrentHashMap<Integer, LongAdder> objectsPerDepth = new ConcurrentHashMap<>();
+	protected final LongAdder[] durationHistogram = new LongAdder[HISTOGRAM_BUCKETS];
+	protected final LongAdder collections = new LongAdder();
+	protected final LongAdder collectionElements = new LongAdder();
+	protected final LongAdder generatorHits = new LongAdder();
+	protected final LongAdder customGeneratorHits = new LongAdder();
+	protected final LongAdder planHits = new LongAdder();
+	protected final LongAdder planMisses = new LongAdder();
+	protected final LongAdder graphs = new LongAdder();
+	protected final LongAdder exhaustedGraphs = new LongAdder();
+	protected final LongAccumulator largestGraphObjects = new LongAccumulator(Long::max, 0);
+	protected final LongAccumulator largestGraphEstimatedBytes = new LongAccumulator(Long::max, 0);
+
+	public FabricationMetrics()
+	{
+		for (int i = 0; i < HISTOGRAM_BUCKETS; i++)
+		{
+			durationHistogram[i] = new LongAdder();
+		}
+	}
+
+	@Override
+	public void objectFabricated(Class<?> type, int depth, long durationNanos)
+	{
+		objectsPerClass.computeIfAbsent(type, x -> new LongAdder()).increment();
+		objectsPerDepth.computeIfAbsent(depth, x -> new LongAdder()).increment();
+		durationHistogram[bucketOf(durationNanos)].increment();
+	}
+
+	@Override
+	public void collectionFabricated(Class<?> type, int size, int modifications, long durationNanos)
+	{
+		collections.increment();
+		collectionElements.add(size);
+	}
+
+	@Override
+	public void graphFabricated(Class<?> type, long objects, long estimatedBytes, boolean budgetExhausted)
+	{
+		graphs.increment();
+		largestGraphObjects.accumulate(objects);
+		largestGraphEstimatedBytes.accumulate(estimatedBytes);
+		if (budgetExhausted)
+		{
+			exhaustedGraphs.increment();
+		}
+	}
+
+	@Override
+	public void generatorUsed(Class<?> type, boolean custom)
+	{
+		generatorHits.increment();
+		if (custom)
+		{
+			customGeneratorHits.increment();
+		}
+	}
+
+	@Override
+	public void planResolved(Class<?> type, boolean cached)
+	{
+		(cached ? planHits : planMisses).increment();
+	}
+
+	public Map<Class<?>, Long> getObjectsPerClass()
+	{
+		Map<Class<?>, Long> result = new ConcurrentHashMap<>();
+		objectsPerClass.forEach((type, count) -> result.put(type, count.sum()));
+		return Collections.unmodifiableMap(result);
+	}
+
+	public Map<Integer, Long> getObjectsPerDepth()
+	{
+		Map<Integer, Long> result = new TreeMap<>();
+		objectsPerDepth.forEach((depth, count) -> result.put(depth, count.sum()));
+		return Collections.unmodifiableMap(result);
+	}
+
+	public long getObjectCount()
+	{
+		long result = 0;
+		for (LongAdder count : objectsPerClass.values())
+		{
+			result += count.sum();
+		}
+		return result;
+	}
+
+	// Objects built by recursing into a field, i.e. everything below depth 0
+	public long getRecursiveBuilds()
+	{
+		long result = 0;
+		for (Map.Entry<Integer, LongAdder> entry : objectsPerDepth.entrySet())
+		{
+			if (entry.getKey() > 0)
+			{
+				result += entry.getValue().sum();
+			}
+		}
+		return result;
+	}
+
+	public long getGeneratorHits()
+	{
+		return generatorHits.sum();
+	}
+
+	public long getCustomGeneratorHits()
+	{
+		return customGeneratorHits.sum();
+	}
+
+	public long getCollectionCount()
+	{
+		return collections.sum();
+	}
+
+	public long getCollectionElements()
+	{
+		return collectionElements.sum();
+	}
+
+	public long getGraphCount()
+	{
+		return graphs.sum();
+	}
+
+	// The most objects (and estimated bytes) any one graph used, i.e. the smallest budget that wouldn't have cut it short
+	public long getLargestGraphObjects()
+	{
+		return largestGraphObjects.get();
+	}
+
+	public long getLargestGraphEstimatedBytes()
+	{
+		return largestGraphEstimatedBytes.get();
+	}
+
+	public long getExhaustedGraphs()
+	{
+		return exhaustedGraphs.sum();
+	}
+
+	public long[] getDurationHistogram()
+	{
+		long[] result = new long[HISTOGRAM_BUCKETS];
+		for (int i = 0; i < HISTOGRAM_BUCKETS; i++)
+		{
+			result[i] = durationHistogram[i].sum();
+		}
+		return result;
+	}
+
+	public long getPlanHits()
+	{
+		return planHits.sum();
+	}
+
+	public long getPlanMisses()
+	{
+		return planMisses.sum();
+	}
+
+	public double getPlanCacheHitRate()
+	{
+		long hits = planHits.sum();
+		long total = hits + planMisses.sum();
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	public void reset()
+	{
+		objectsPerClass.clear();
+		objectsPerDepth.clear();
+		for (LongAdder bucket : durationHistogram)
+		{
+			bucket.reset();
+		}
+		collections.reset();
+		collectionElements.reset();
+		generatorHits.reset();
+		customGeneratorHits.reset();
+		planHits.reset();
+		planMisses.reset();
+		graphs.reset();
+		exhaustedGraphs.reset();
+		largestGraphObjects.reset();
+		largestGraphEstimatedBytes.reset();
+	}
+
+	static int bucketOf(long durationNanos)
+	{
+		return durationNanos <= 0 ? 0 : 63 - Long.numberOfLeadingZeros(durationNanos);
+	}
+}
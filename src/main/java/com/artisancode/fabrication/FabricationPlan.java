@@ -0,0 +1,98 @@
+package com.artisancode.fabrication;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class FabricationPlan
+{
+	// Plans are built once per class and shared by every builder (and every thread) from then on
+	private static final ClassValue<FabricationPlan> plans = new ClassValue<FabricationPlan>()
+	{
+		@Override
+		protected FabricationPlan computeValue(Class<?> type)
+		{
+			return new FabricationPlan(type);
+		}
+	};
+
+	protected final Class<?> target;
+	protected final List<FabricationField> fields;
+	// Set by the first lookup, so listeners can tell cache hits from the lookup that built the plan
+	private volatile boolean resolved;
+
+	protected FabricationPlan(Class<?> target)
+	{
+		this.target = target;
+
+		List<Field> fieldsToTarget = new ArrayList<>();
+
+		Class<?> classWithFields = target;
+		while (classWithFields.getSuperclass() != null) // we don't want to process Object.class
+		{
+			Collections.addAll(fieldsToTarget, classWithFields.getDeclaredFields());
+			classWithFields = classWithFields.getSuperclass();
+		}
+		fieldsToTarget.removeIf(x -> x.getName().equals("this$0")); // remove the .this fields
+
+		List<FabricationField> resolvedFields = new ArrayList<>(fieldsToTarget.size());
+		for (Field field : fieldsToTarget)
+		{
+			field.setAccessible(true);
+			resolvedFields.add(new FabricationField(field));
+		}
+
+		fields = Collections.unmodifiableList(resolvedFields);
+	}
+
+	public static FabricationPlan of(Class<?> target)
+	{
+		return of(target, null);
+	}
+
+	// For internal lookups such as size estimates, which shouldn't count as the lookup that built the plan
+	static FabricationPlan peek(Class<?> target)
+	{
+		return plans.get(target);
+	}
+
+	public static FabricationPlan of(Class<?> target, FabricationListener listener)
+	{
+		FabricationPlan plan = plans.get(target);
+		boolean cached = plan.resolved;
+		if (!cached)
+		{
+			plan.resolved = true;
+		}
+
+		if (listener != null)
+		{
+			listener.planResolved(target, cached);
+		}
+		return plan;
+	}
+
+	public Class<?> getTarget()
+	{
+		return target;
+	}
+
+	public List<FabricationField> getFields()
+	{
+		return fields;
+	}
+
+	// Looked up by declaring class as well as name, as a subclass can hide a superclass field
+	public FabricationField getField(Class<?> declaringType, String name)
+	{
+		for (FabricationField field : fields)
+		{
+			if (field.field.getDeclaringClass() == declaringType && field.name.equals(name))
+			{
+				return field;
+			}
+		}
+		throw new FabricationException(String.format("Unable to find field %s of %s in the plan for %s", name, declaringType.getName(), target.getName()));
+	}
+}
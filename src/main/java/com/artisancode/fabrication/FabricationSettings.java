@@ -0,0 +1,103 @@
+package com.artisancode.fabrication;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.function.Supplier;
+
+// The settings every generation and container element of a configuration shares. They are captured once and never
+// change, so a cached generation is still current exactly when it holds the same settings object
+final class FabricationSettings
+{
+	final HashMap<Class<?>, Supplier<Object>> customGenerators;
+	final boolean useFieldNameForString;
+	final boolean recursive;
+	final Supplier<Date> currentDate;
+	final Supplier<Instant> currentInstant;
+	final Supplier<ZonedDateTime> currentZonedDateTime;
+	final Supplier<LocalDateTime> currentLocalDateTime;
+	final FieldWriterEngine fieldWriterEngine;
+	final boolean useCompiledFabricators;
+	final FabricationListener listener;
+	final int containerSize;
+	final boolean lazyContainers;
+	final InstanceSharing instanceSharing;
+	final boolean shareInstancesAcrossCollection;
+	final boolean lazyProxies;
+	final long maxObjects;
+	final long maxEstimatedBytes;
+	final BudgetFallback budgetFallback;
+	final boolean frozen;
+
+	FabricationSettings(FabricatorConfiguration source)
+	{
+		customGenerators = source.customGenerators;
+		useFieldNameForString = source.useFieldNameForString;
+		recursive = source.recursive;
+		currentDate = source.currentDate;
+		currentInstant = source.currentInstant;
+		currentZonedDateTime = source.currentZonedDateTime;
+		currentLocalDateTime = source.currentLocalDateTime;
+		fieldWriterEngine = source.fieldWriterEngine;
+		useCompiledFabricators = source.useCompiledFabricators;
+		listener = source.listener;
+		containerSize = source.containerSize;
+		lazyContainers = source.lazyContainers;
+		instanceSharing = source.instanceSharing;
+		shareInstancesAcrossCollection = source.shareInstancesAcrossCollection;
+		lazyProxies = source.lazyProxies;
+		maxObjects = source.maxObjects;
+		maxEstimatedBytes = source.maxEstimatedBytes;
+		budgetFallback = source.budgetFallback;
+		frozen = source.isFrozen();
+	}
+
+	// The generation settings are plain fields on each configuration, so the hot path reads them without an indirection
+	void applyTo(FabricatorConfiguration target)
+	{
+		target.customGenerators = customGenerators;
+		target.useFieldNameForString = useFieldNameForString;
+		target.recursive = recursive;
+		target.currentDate = currentDate;
+		target.currentInstant = currentInstant;
+		target.currentZonedDateTime = currentZonedDateTime;
+		target.currentLocalDateTime = currentLocalDateTime;
+		target.fieldWriterEngine = fieldWriterEngine;
+		target.useCompiledFabricators = useCompiledFabricators;
+		target.listener = listener;
+		target.containerSize = containerSize;
+		target.lazyContainers = lazyContainers;
+		target.instanceSharing = instanceSharing;
+		target.shareInstancesAcrossCollection = shareInstancesAcrossCollection;
+		target.lazyProxies = lazyProxies;
+		target.maxObjects = maxObjects;
+		target.maxEstimatedBytes = maxEstimatedBytes;
+		target.budgetFallback = budgetFallback;
+	}
+
+	// Only a caller's own configuration is compared; generations and elements share the settings they were created with
+	boolean isCapturedFrom(FabricatorConfiguration source)
+	{
+		return customGenerators == source.customGenerators
+				       && useFieldNameForString == source.useFieldNameForString
+				       && recursive == source.recursive
+				       && currentDate == source.currentDate
+				       && currentInstant == source.currentInstant
+				       && currentZonedDateTime == source.currentZonedDateTime
+				       && currentLocalDateTime == source.currentLocalDateTime
+				       && fieldWriterEngine == source.fieldWriterEngine
+				       && useCompiledFabricators == source.useCompiledFabricators
+				       && listener == source.listener
+				       && containerSize == source.containerSize
+				       && lazyContainers == source.lazyContainers
+				       && instanceSharing == source.instanceSharing
+				       && shareInstancesAcrossCollection == source.shareInstancesAcrossCollection
+				       && lazyProxies == source.lazyProxies
+				       && maxObjects == source.maxObjects
+				       && maxEstimatedBytes == source.maxEstimatedBytes
+				       && budgetFallback == source.budgetFallback
+				       && frozen == source.isFrozen();
+	}
+}
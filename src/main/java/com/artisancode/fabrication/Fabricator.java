@@ -21,4 +21,15 @@ public class Fabricator<T>
 	{
 		return new CollectionBuilder<T>(target, configuration);
 	}
+
+	// What fabricating the type would cost, without fabricating anything
+	public FabricationExplanation explain(Class<T> target)
+	{
+		return FabricationExplanation.of(target, new FabricatorConfiguration());
+	}
+
+	public FabricationExplanation explain(Class<T> target, FabricatorConfiguration configuration)
+	{
+		return FabricationExplanation.of(target, configuration);
+	}
 }
@@ -1,19 +1,18 @@
 package com.artisancode.fabrication;
 
-import java.lang.reflect.Modifier;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.Optional;
 import java.util.function.Supplier;
 
 public class FabricatorConfiguration
 {
-	public HashMap<Class<?>, Supplier<Object>> customGenerators = new HashMap<>();
+	public HashMap<Class<?>, Supplier<Object>> customGenerators = new GeneratorMap();
 	public boolean useFieldNameForString;
 	public boolean recursive;
 	public int recurseLimit;
@@ -23,7 +22,40 @@ public class FabricatorConfiguration
 	public Supplier<Instant> currentInstant = () -> Instant.now();
 	public Supplier<ZonedDateTime> currentZonedDateTime = () -> ZonedDateTime.now(ZoneOffset.UTC);
 	public Supplier<LocalDateTime> currentLocalDateTime = () -> ZonedDateTime.now(ZoneOffset.UTC).toLocalDateTime();
+	// How generated values are written into fields (reflection is kept as a fallback)
+	public FieldWriterEngine fieldWriterEngine = MethodHandleFieldWriterEngine.INSTANCE;
+	// Opt in to per-class compiled fabricators, types they can't handle still use the field writers
+	public boolean useCompiledFabricators;
+	// Instrumentation, null (the default) costs next to nothing
+	public FabricationListener listener;
+	// How many elements list, set, map and array fields are filled with
+	public int containerSize = 2;
+	// Fill List, Set, Collection and Map fields the first time they are used rather than when they are fabricated
+	public boolean lazyContainers;
+	// Reuse nested objects within a graph instead of fabricating one for every field
+	public InstanceSharing instanceSharing = InstanceSharing.NONE;
+	// Share nested objects between every element of a CollectionBuilder run, not just within each element
+	public boolean shareInstancesAcrossCollection;
+	// Give interface typed fields a stand-in that only generates values when its methods are called
+	public boolean lazyProxies;
+	// Budget for each object graph (each top level fabricate() call); 0 means unlimited. Once a graph would go over it,
+	// nested object fields get the budget fallback instead of a new object
+	public long maxObjects;
+	public long maxEstimatedBytes;
+	public BudgetFallback budgetFallback = BudgetFallback.NULL;
 	protected HashMap<Class<?>, Supplier<Object>> defaultGenerators = new HashMap<>();
+	// How many objects deep this generation is below the object that was asked for
+	protected int depth;
+	private volatile FabricatorConfiguration nextGeneration;
+	private volatile FabricatorConfiguration[] elementSiblings = new FabricatorConfiguration[0];
+	private volatile GeneratorRegistry generatorRegistry;
+	// Generations and elements keep the settings they were derived with; a caller's configuration captures them on demand
+	private volatile FabricationSettings settings;
+	private boolean derived;
+	private boolean frozen;
+	// What a frozen configuration is fabricated from: a copy nobody outside can reach, so assigning the frozen
+	// configuration's public fields can't change a fabrication running on another thread
+	private FabricatorConfiguration snapshot;
 
 	public FabricatorConfiguration()
 	{
@@ -40,38 +72,133 @@ public class FabricatorConfiguration
 		initDefaultGenerators();
 	}
 
-	FabricatorConfiguration(int generationSeed,
-	                        boolean useFieldNameForString,
-	                        boolean recursive,
-	                        int recurseLimit,
-	                        Supplier<Date> currentDate,
-	                        Supplier<Instant> currentInstant,
-	                        Supplier<ZonedDateTime> currentZonedDateTime,
-	                        Supplier<LocalDateTime> currentLocalDateTime)
+	// A generation one level deeper than the parent; it shares the parent's custom generators rather than copying them
+	protected FabricatorConfiguration(FabricatorConfiguration parent)
 	{
-		this(generationSeed);
-		this.useFieldNameForString = useFieldNameForString;
-		this.recursive = recursive;
-		this.recurseLimit = recurseLimit;
-		this.currentDate = currentDate;
-		this.currentInstant = currentInstant;
-		this.currentZonedDateTime = currentZonedDateTime;
-		this.currentLocalDateTime = currentLocalDateTime;
+		derive(parent.settings());
+		this.generationSeed = parent.generationSeed + 1;
+		this.recurseLimit = parent.recurseLimit - 1;
+		this.depth = parent.depth + 1;
+
+		initDefaultGenerators();
+	}
+
+	// A frozen copy at the same generation, with its own generators
+	private FabricatorConfiguration(FabricatorConfiguration source, GeneratorMap generators)
+	{
+		source.settings().applyTo(this);
+		this.generationSeed = source.generationSeed;
+		this.recurseLimit = source.recurseLimit;
+		this.depth = source.depth;
+		this.customGenerators = generators;
+		this.frozen = true;
+		this.settings = new FabricationSettings(this);
+
+		initDefaultGenerators();
+		// Built up front, so the read path never has to check for changes
+		this.generatorRegistry = new GeneratorRegistry(generators, generators.version(), defaultGenerators);
+		this.snapshot = new FabricatorConfiguration(this, 0);
+		snapshot.generatorRegistry = new GeneratorRegistry(generators, generators.version(), snapshot.defaultGenerators);
+	}
+
+	// A sibling at the same depth with its seed offset, for container elements
+	private FabricatorConfiguration(FabricatorConfiguration source, int seedOffset)
+	{
+		derive(source.settings());
+		this.generationSeed = source.generationSeed + seedOffset;
+		this.recurseLimit = source.recurseLimit;
+		this.depth = source.depth;
+
+		initDefaultGenerators();
+	}
+
+	private void derive(FabricationSettings shared)
+	{
+		shared.applyTo(this);
+		this.frozen = shared.frozen;
+		this.settings = shared;
+		this.derived = true;
+	}
+
+	// The settings generations and elements are derived with. A caller's own configuration can have its public fields
+	// assigned at any time, so they are captured again once they no longer match
+	FabricationSettings settings()
+	{
+		FabricationSettings current = settings;
+		if (!derived && !frozen && (current == null || !current.isCapturedFrom(this)))
+		{
+			current = new FabricationSettings(this);
+			settings = current;
+		}
+		return current;
+	}
+
+	// A snapshot that many threads can fabricate from at once: later changes to this configuration don't reach it, and
+	// its generators and settings can't be changed
+	public FabricatorConfiguration freeze()
+	{
+		if (frozen)
+		{
+			forFabrication();
+			return this;
+		}
+		return new FabricatorConfiguration(this, GeneratorMap.frozenCopyOf(customGenerators));
+	}
+
+	// Copy on write: a frozen snapshot with one more custom generator, leaving this configuration as it is
+	public FabricatorConfiguration withGenerator(Class<?> type, Supplier<Object> generator)
+	{
+		FabricatorConfiguration source = forFabrication();
+		HashMap<Class<?>, Supplier<Object>> generators = new HashMap<>(source.customGenerators);
+		generators.put(type, generator);
+		return new FabricatorConfiguration(source, GeneratorMap.frozenCopyOf(generators));
+	}
+
+	// The configuration builders fabricate from. The public fields of a frozen configuration can't be made final, so
+	// assigning one is rejected the next time the configuration is used rather than being seen by some threads only
+	FabricatorConfiguration forFabrication()
+	{
+		FabricatorConfiguration result = snapshot;
+		if (result == null)
+		{
+			return this;
+		}
+
+		if (!settings.isCapturedFrom(this) || generationSeed != result.generationSeed || recurseLimit != result.recurseLimit)
+		{
+			throw new UnsupportedOperationException("A frozen configuration can't be changed, freeze a changed copy instead");
+		}
+		return result;
+	}
+
+	public boolean isFrozen()
+	{
+		return frozen;
 	}
 
 	void initDefaultGenerators()
 	{
-		defaultGenerators.put(int.class, () -> generationSeed);
+		defaultGenerators.put(int.class, () -> defaultInt());
 		defaultGenerators.put(BigDecimal.class, () -> generationSeed);
-		defaultGenerators.put(double.class, () -> (double) generationSeed);
-		defaultGenerators.put(byte.class, () -> (byte) generationSeed);
-		defaultGenerators.put(short.class, () -> (short) generationSeed);
-		defaultGenerators.put(long.class, () -> (long) generationSeed);
-		defaultGenerators.put(float.class, () -> (float) generationSeed);
-		defaultGenerators.put(char.class, () -> (char) ('A' + generationSeed));
-		defaultGenerators.put(boolean.class, () -> false);
+		defaultGenerators.put(double.class, () -> defaultDouble());
+		defaultGenerators.put(byte.class, () -> defaultByte());
+		defaultGenerators.put(short.class, () -> defaultShort());
+		defaultGenerators.put(long.class, () -> defaultLong());
+		defaultGenerators.put(float.class, () -> defaultFloat());
+		defaultGenerators.put(char.class, () -> defaultChar());
+		defaultGenerators.put(boolean.class, () -> defaultBoolean());
 		defaultGenerators.put(String.class, () -> Integer.toString(generationSeed));
 
+		// Boxed primitives (e.g. the elements of a List<Integer>) get the same values as the primitives
+		defaultGenerators.put(Integer.class, () -> defaultInt());
+		defaultGenerators.put(Double.class, () -> defaultDouble());
+		defaultGenerators.put(Byte.class, () -> defaultByte());
+		defaultGenerators.put(Short.class, () -> defaultShort());
+		defaultGenerators.put(Long.class, () -> defaultLong());
+		defaultGenerators.put(Float.class, () -> defaultFloat());
+		defaultGenerators.put(Character.class, () -> defaultChar());
+		defaultGenerators.put(Boolean.class, () -> defaultBoolean());
+
 		// Temporal generators
 		defaultGenerators.put(Date.class, () -> currentDate.get());
 		defaultGenerators.put(Instant.class, () -> currentInstant.get());
@@ -79,35 +206,167 @@ public class FabricatorConfiguration
 		defaultGenerators.put(LocalDateTime.class, () -> currentLocalDateTime.get());
 	}
 
+	// Unboxed versions of the primitive default generators, used by the primitive field writers
+	int defaultInt()
+	{
+		return generationSeed;
+	}
+
+	double defaultDouble()
+	{
+		return generationSeed;
+	}
+
+	byte defaultByte()
+	{
+		return (byte) generationSeed;
+	}
+
+	short defaultShort()
+	{
+		return (short) generationSeed;
+	}
+
+	long defaultLong()
+	{
+		return generationSeed;
+	}
+
+	float defaultFloat()
+	{
+		return generationSeed;
+	}
+
+	char defaultChar()
+	{
+		return (char) ('A' + generationSeed);
+	}
+
+	boolean defaultBoolean()
+	{
+		return false;
+	}
+
+	public void addListener(FabricationListener listener)
+	{
+		if (frozen)
+		{
+			throw new UnsupportedOperationException("Listeners can't be added to a frozen configuration");
+		}
+		this.listener = FabricationListener.combine(this.listener, listener);
+	}
+
+	boolean hasBudget()
+	{
+		return maxObjects > 0 || maxEstimatedBytes > 0;
+	}
+
+	boolean tracksGraph()
+	{
+		return instanceSharing != InstanceSharing.NONE || hasBudget() || (listener != null && listener.tracksGraph());
+	}
+
+	// The unboxed primitive defaults can only be used if nothing else needs to see the value go through generate
+	boolean usesBoxedGenerator(Class<?> targetClass)
+	{
+		return listener != null || resolve(targetClass).custom;
+	}
+
+	protected GeneratorRegistry.Resolution resolve(Class<?> targetClass)
+	{
+		HashMap<Class<?>, Supplier<Object>> generators = customGenerators;
+		GeneratorRegistry registry = generatorRegistry;
+		if (registry == null || !registry.isCurrentFor(generators))
+		{
+			// The custom generators have changed (or been replaced) since the registry was built
+			int version = generators instanceof GeneratorMap ? ((GeneratorMap) generators).version() : 0;
+			registry = new GeneratorRegistry(generators, version, defaultGenerators);
+			generatorRegistry = registry;
+		}
+
+		return registry.resolve(targetClass);
+	}
+
+	public Object generate(FabricationField field)
+	{
+		if (snapshot != null)
+		{
+			return forFabrication().generate(field);
+		}
+
+		if (field.container != null && resolve(field.type).generator == null)
+		{
+			// The field's generic type knows the element types, which the raw class doesn't
+			return field.container.create(this, field.name);
+		}
+
+		return generate(field.type, field.name);
+	}
+
 	public Object generate(Class<?> targetClass, String fieldName)
 	{
-		Supplier<Object> generator = Optional.ofNullable(customGenerators.get(targetClass))
-				                             .orElse(defaultGenerators.get(targetClass));
+		if (snapshot != null)
+		{
+			return forFabrication().generate(targetClass, fieldName);
+		}
 
 		if (targetClass == String.class && useFieldNameForString && fieldName != null)
 		{
 			// Special case for Strings that use the fieldName
+			if (listener != null)
+			{
+				listener.generatorUsed(targetClass, false);
+			}
 			return fieldName;
 		}
 
-		if (generator != null)
+		GeneratorRegistry.Resolution resolution = resolve(targetClass);
+
+		if (resolution.generator != null)
 		{
 			// A generator exists ... use it!
-			return generator.get();
+			if (listener != null)
+			{
+				listener.generatorUsed(targetClass, resolution.custom);
+			}
+			return resolution.generator.get();
+		}
+
+		if (resolution.enumConstant != null)
+		{
+			return resolution.enumConstant;
+		}
+
+		if (resolution.container != null)
+		{
+			return resolution.container.create(this, fieldName);
 		}
 
-		if (targetClass.isEnum())
+		if (resolution.fabricatable && recursive && instanceSharing != InstanceSharing.NONE)
 		{
-			// Default the value to the first value in the Enum
-			Class<? extends Enum<?>> targetEnumClass = (Class<? extends Enum<?>>) targetClass;
-			return targetEnumClass.getEnumConstants()[0];
+			// Checked before the recurse limit, so that self references close into cycles rather than ending in null
+			Object shared = FabricationGraph.find(targetClass, depth + 1);
+			if (shared != null)
+			{
+				return shared;
+			}
 		}
 
-		// We can't fabricate interfaces or abstract classes
-		boolean canFabricate = !targetClass.isInterface() && !Modifier.isAbstract(targetClass.getModifiers());
 		boolean shouldFabricate = recursive && recurseLimit > 0;
-		if (canFabricate && shouldFabricate)
+		boolean proxied = lazyProxies && LazyProxy.canProxy(targetClass);
+		if ((resolution.fabricatable || proxied) && shouldFabricate)
 		{
+			if (hasBudget() && !FabricationGraph.allows(targetClass))
+			{
+				return FabricationGraph.fallback(targetClass);
+			}
+
+			if (proxied)
+			{
+				// The proxy stands one level down, like the object it replaces would
+				return LazyProxy.create(targetClass, cloneForNextGeneration());
+			}
+
 			// If recursing and there is at least one more level to go, try and generate the sub-object
 			ObjectBuilder<Object> builder = new ObjectBuilder(targetClass, cloneForNextGeneration());
 			return builder.fabricate();
@@ -117,20 +376,60 @@ public class FabricatorConfiguration
 		return null;
 	}
 
+	// True when generate would fabricate a new nested object for the type, so an existing one can be refilled instead
+	boolean refillsInPlace(Class<?> targetClass)
+	{
+		if (!recursive || recurseLimit <= 0)
+		{
+			return false;
+		}
+
+		GeneratorRegistry.Resolution resolution = resolve(targetClass);
+		return resolution.generator == null && resolution.enumConstant == null && resolution.fabricatable;
+	}
+
 	FabricatorConfiguration cloneForNextGeneration()
 	{
-		FabricatorConfiguration result = new FabricatorConfiguration(generationSeed + 1,
-				                                                            useFieldNameForString,
-				                                                            recursive,
-				                                                            recurseLimit - 1,
-				                                                            currentDate,
-				                                                            currentInstant,
-				                                                            currentZonedDateTime,
-				                                                            currentLocalDateTime);
+		// Every nested object at the same depth uses the same generation, so it is only built once per depth
+		FabricatorConfiguration result = nextGeneration;
+		if (result == null || !result.isDerivedFrom(this, 1, 1))
+		{
+			result = new FabricatorConfiguration(this);
+			nextGeneration = result;
+		}
 
-		// Copy across any custom generators that exist
-		result.customGenerators.putAll(customGenerators);
+		return result;
+	}
 
+	// Container elements after the first are generated from a sibling at the same depth with the seed offset by their
+	// index, so they differ from each other; otherwise a Set<Integer> or Map<String, ...> would collapse to one entry
+	FabricatorConfiguration forElement(int index)
+	{
+		if (index == 0)
+		{
+			return this;
+		}
+
+		FabricatorConfiguration[] siblings = elementSiblings;
+		FabricatorConfiguration result = index <= siblings.length ? siblings[index - 1] : null;
+		if (result == null || !result.isDerivedFrom(this, index, 0))
+		{
+			result = new FabricatorConfiguration(this, index);
+
+			FabricatorConfiguration[] updated = Arrays.copyOf(siblings, Math.max(index, siblings.length));
+			updated[index - 1] = result;
+			elementSiblings = updated;
+		}
 		return result;
 	}
+
+	boolean isDerivedFrom(FabricatorConfiguration parent, int seedOffset, int levels)
+	{
+		// A generation or element never changes, so the settings it shares with its parent are one reference check; only
+		// a caller's configuration, whose public fields can change, has its settings compared
+		return settings == parent.settings()
+				       && generationSeed == parent.generationSeed + seedOffset
+				       && recurseLimit == parent.recurseLimit - levels
+				       && depth == parent.depth + levels;
+	}
 }
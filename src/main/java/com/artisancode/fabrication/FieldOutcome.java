@@ -0,0 +1,26 @@
+package com.artisancode.fabrication;
+
+// Where a field's value comes from when it is fabricated, as reported by FabricationExplanation
+public enum FieldOutcome
+{
+	// A String set to the field's name
+	FIELD_NAME,
+	// A default generator
+	GENERATOR,
+	// One of FabricatorConfiguration.customGenerators
+	CUSTOM_GENERATOR,
+	// The enum's first constant
+	ENUM_CONSTANT,
+	// A list, set, map or array filled with containerSize elements
+	CONTAINER,
+	// A container that is only filled when it is first used
+	LAZY_CONTAINER,
+	// An object shared with the rest of the graph
+	SHARED,
+	// An interface stand-in that only generates values when it is used
+	LAZY_PROXY,
+	// A nested object fabricated for the field
+	FABRICATED,
+	// Nothing can (or may, with the recursion settings) be generated, so the field is left null
+	NULL
+}
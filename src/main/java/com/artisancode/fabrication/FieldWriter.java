@@ -0,0 +1,6 @@
+package com.artisancode.fabrication;
+
+public interface FieldWriter
+{
+	void write(Object target, FabricatorConfiguration configuration);
+}
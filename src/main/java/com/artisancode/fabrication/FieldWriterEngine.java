@@ -0,0 +1,7 @@
+package com.artisancode.fabrication;
+
+public interface FieldWriterEngine
+{
+	// Returns one writer per field of the plan, in the same order as FabricationPlan.getFields()
+	FieldWriter[] writersFor(FabricationPlan plan);
+}
@@ -0,0 +1,518 @@
+package com.artisancode.fabrication;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+// The binary layout FixtureStore uses for a class: every instance field in plan order, primitives as their raw value
+// and references behind a presence byte. Nested objects of the declared type, lists, sets, maps and arrays are written
+// inline
+class FixtureCodec
+{
+	private static final ClassValue<FixtureCodec> codecs = new ClassValue<FixtureCodec>()
+	{
+		@Override
+		protected FixtureCodec computeValue(Class<?> type)
+		{
+			return new FixtureCodec(type);
+		}
+	};
+
+	protected final Class<?> type;
+	protected final Supplier<Object> constructor;
+	protected final FieldCodec[] fields;
+
+	protected FixtureCodec(Class<?> type)
+	{
+		this.type = type;
+		constructor = CompiledFabricator.constructor(type);
+
+		List<FabricationField> columns = DatasetWriter.columns(FabricationPlan.peek(type));
+		fields = new FieldCodec[columns.size()];
+		for (int i = 0; i < fields.length; i++)
+		{
+			fields[i] = fieldCodec(columns.get(i));
+		}
+	}
+
+	static FixtureCodec of(Class<?> type)
+	{
+		return codecs.get(type);
+	}
+
+	void write(Object value, DataOutput out) throws IOException
+	{
+		write(value, out, new ArrayList<>());
+	}
+
+	// The path holds the objects being written further up, as nested objects are written inline and a cycle (e.g. from
+	// instance sharing) would never end
+	void write(Object value, DataOutput out, List<Object> path) throws IOException
+	{
+		for (Object ancestor : path)
+		{
+			if (ancestor == value)
+			{
+				throw new FabricationException(String.format("Unable to store %s in a fixture as it refers back to itself", value.getClass().getName()));
+			}
+		}
+		path.add(value);
+
+		try
+		{
+			for (FieldCodec field : fields)
+			{
+				field.write(value, out, path);
+			}
+		}
+		catch (IllegalAccessException e)
+		{
+			throw new FabricationException(e);
+		}
+
+		path.remove(path.size() - 1);
+	}
+
+	Object read(ByteBuffer in)
+	{
+		Object result = constructor.get();
+		try
+		{
+			for (FieldCodec field : fields)
+			{
+				field.read(result, in);
+			}
+		}
+		catch (IllegalAccessException e)
+		{
+			throw new FabricationException(e);
+		}
+		return result;
+	}
+
+	// Changes whenever a field is added, removed, renamed or retyped anywhere in the stored graph
+	static long structureHash(Class<?> root)
+	{
+		Set<Class<?>> visited = new LinkedHashSet<>();
+		Deque<Class<?>> pending = new ArrayDeque<>();
+		pending.add(root);
+
+		long hash = 0xcbf29ce484222325L;
+		while (!pending.isEmpty())
+		{
+			Class<?> type = pending.poll();
+			if (!visited.add(type))
+			{
+				continue;
+			}
+
+			hash = hash(hash, type.getName());
+			if (type.isEnum())
+			{
+				for (Object constant : type.getEnumConstants())
+				{
+					hash = hash(hash, ((Enum<?>) constant).name());
+				}
+				continue;
+			}
+
+			if (!isNested(type))
+			{
+				continue;
+			}
+
+			for (FabricationField field : DatasetWriter.columns(FabricationPlan.peek(type)))
+			{
+				hash = hash(hash, field.name);
+				// The generic type, so that changing a container's element type changes the hash too
+				hash = hash(hash, field.field.getGenericType().getTypeName());
+				pending.add(field.type);
+				addElementTypes(field.container, pending);
+			}
+		}
+		return hash;
+	}
+
+	static void addElementTypes(Containers.Spec container, Collection<Class<?>> types)
+	{
+		if (container instanceof Containers.ArraySpec)
+		{
+			addElementType(((Containers.ArraySpec) container).element, types);
+		}
+		else if (container instanceof Containers.CollectionSpec)
+		{
+			addElementType(((Containers.CollectionSpec) container).element, types);
+		}
+		else if (container instanceof Containers.MapSpec)
+		{
+			addElementType(((Containers.MapSpec) container).key, types);
+			addElementType(((Containers.MapSpec) container).value, types);
+		}
+	}
+
+	static void addElementType(Containers.Element element, Collection<Class<?>> types)
+	{
+		types.add(element.type);
+		addElementTypes(element.container, types);
+	}
+
+	static long hash(long hash, String value)
+	{
+		// FNV-1a
+		for (int i = 0; i < value.length(); i++)
+		{
+			hash ^= value.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	static boolean isNested(Class<?> type)
+	{
+		return type.getClassLoader() != null && !type.isEnum() && !type.isArray() && FabricationField.canFabricate(type);
+	}
+
+	static FieldCodec fieldCodec(FabricationField column)
+	{
+		Field field = column.field;
+		Class<?> type = column.type;
+
+		if (type == int.class)
+		{
+			return new FieldCodec((target, out, path) -> out.writeInt(field.getInt(target)), (target, in) -> field.setInt(target, in.getInt()));
+		}
+		if (type == long.class)
+		{
+			return new FieldCodec((target, out, path) -> out.writeLong(field.getLong(target)), (target, in) -> field.setLong(target, in.getLong()));
+		}
+		if (type == double.class)
+		{
+			return new FieldCodec((target, out, path) -> out.writeDouble(field.getDouble(target)), (target, in) -> field.setDouble(target, in.getDouble()));
+		}
+		if (type == float.class)
+		{
+			return new FieldCodec((target, out, path) -> out.writeFloat(field.getFloat(target)), (target, in) -> field.setFloat(target, in.getFloat()));
+		}
+		if (type == short.class)
+		{
+			return new FieldCodec((target, out, path) -> out.writeShort(field.getShort(target)), (target, in) -> field.setShort(target, in.getShort()));
+		}
+		if (type == byte.class)
+		{
+			return new FieldCodec((target, out, path) -> out.writeByte(field.getByte(target)), (target, in) -> field.setByte(target, in.get()));
+		}
+		if (type == char.class)
+		{
+			return new FieldCodec((target, out, path) -> out.writeChar(field.getChar(target)), (target, in) -> field.setChar(target, in.getChar()));
+		}
+		if (type == boolean.class)
+		{
+			return new FieldCodec((target, out, path) -> out.writeBoolean(field.getBoolean(target)), (target, in) -> field.setBoolean(target, in.get() != 0));
+		}
+
+		ValueCodec value = valueCodec(column.type, column.container, column.name);
+		return new FieldCodec((target, out, path) -> {
+			Object current = field.get(target);
+			out.writeBoolean(current != null);
+			if (current != null)
+			{
+				value.write(current, out, path);
+			}
+		}, (target, in) -> {
+			field.set(target, in.get() != 0 ? value.read(in) : null);
+		});
+	}
+
+	static ValueCodec valueCodec(Class<?> type, Containers.Spec container, String name)
+	{
+		if (container != null)
+		{
+			return containerCodec(container, name);
+		}
+		if (type.isPrimitive())
+		{
+			// Primitive array elements go through the boxed codecs
+			type = MethodType.methodType(type).wrap().returnType();
+		}
+
+		if (type == String.class)
+		{
+			return new ValueCodec((value, out, path) -> writeString((String) value, out), FixtureCodec::readString);
+		}
+		if (type == Integer.class)
+		{
+			return new ValueCodec((value, out, path) -> out.writeInt((Integer) value), ByteBuffer::getInt);
+		}
+		if (type == Long.class)
+		{
+			return new ValueCodec((value, out, path) -> out.writeLong((Long) value), ByteBuffer::getLong);
+		}
+		if (type == Double.class)
+		{
+			return new ValueCodec((value, out, path) -> out.writeDouble((Double) value), ByteBuffer::getDouble);
+		}
+		if (type == Float.class)
+		{
+			return new ValueCodec((value, out, path) -> out.writeFloat((Float) value), ByteBuffer::getFloat);
+		}
+		if (type == Short.class)
+		{
+			return new ValueCodec((value, out, path) -> out.writeShort((Short) value), ByteBuffer::getShort);
+		}
+		if (type == Byte.class)
+		{
+			return new ValueCodec((value, out, path) -> out.writeByte((Byte) value), ByteBuffer::get);
+		}
+		if (type == Character.class)
+		{
+			return new ValueCodec((value, out, path) -> out.writeChar((Character) value), ByteBuffer::getChar);
+		}
+		if (type == Boolean.class)
+		{
+			return new ValueCodec((value, out, path) -> out.writeBoolean((Boolean) value), in -> in.get() != 0);
+		}
+		if (type == Date.class)
+		{
+			return new ValueCodec((value, out, path) -> out.writeLong(((Date) value).getTime()), in -> new Date(in.getLong()));
+		}
+		if (type == BigDecimal.class)
+		{
+			return new ValueCodec((value, out, path) -> writeString(value.toString(), out), in -> new BigDecimal(readString(in)));
+		}
+		if (type.isEnum())
+		{
+			Object[] constants = type.getEnumConstants();
+			return new ValueCodec((value, out, path) -> out.writeInt(((Enum<?>) value).ordinal()), in -> constants[in.getInt()]);
+		}
+		if (type.getName().startsWith("java.time."))
+		{
+			// Every java.time value round trips through toString and its static parse method
+			MethodHandle parse = parseMethod(type, name);
+			return new ValueCodec((value, out, path) -> writeString(value.toString(), out), in -> {
+				try
+				{
+					return parse.invoke(readString(in));
+				}
+				catch (Throwable e)
+				{
+					throw FabricationException.rethrow(e);
+				}
+			});
+		}
+		if (isNested(type))
+		{
+			Class<?> nested = type;
+			return new ValueCodec((value, out, path) -> {
+				if (value.getClass() != nested)
+				{
+					throw new FabricationException(String.format("Unable to store field %s as it holds a %s rather than a %s", name, value.getClass().getName(), nested.getName()));
+				}
+				of(nested).write(value, out, path);
+			}, in -> of(nested).read(in));
+		}
+
+		// Anything else can only be stored while it is null, e.g. an interface field nothing fills
+		return new ValueCodec((value, out, path) -> {
+			throw new FabricationException(String.format("Unable to store field %s in a fixture as %s isn't supported", name, value.getClass().getName()));
+		}, in -> null);
+	}
+
+	// A count followed by each element (or key and value) behind a presence byte; read back into the same kind of
+	// container Containers would have built for the field
+	static ValueCodec containerCodec(Containers.Spec container, String name)
+	{
+		if (container instanceof Containers.ArraySpec)
+		{
+			Containers.ArraySpec array = (Containers.ArraySpec) container;
+			ValueCodec element = elementCodec(array.element, name);
+			return new ValueCodec((value, out, path) -> {
+				int length = Array.getLength(value);
+				out.writeInt(length);
+				for (int i = 0; i < length; i++)
+				{
+					writeElement(element, Array.get(value, i), out, path);
+				}
+			}, in -> {
+				Object result = Array.newInstance(array.component, in.getInt());
+				for (int i = 0; i < Array.getLength(result); i++)
+				{
+					Object value = readElement(element, in);
+					if (value != null)
+					{
+						Array.set(result, i, value);
+					}
+				}
+				return result;
+			});
+		}
+
+		if (container instanceof Containers.CollectionSpec)
+		{
+			Containers.CollectionSpec collection = (Containers.CollectionSpec) container;
+			ValueCodec element = elementCodec(collection.element, name);
+			return new ValueCodec((value, out, path) -> {
+				Collection<?> values = (Collection<?>) value;
+				out.writeInt(values.size());
+				for (Object item : values)
+				{
+					writeElement(element, item, out, path);
+				}
+			}, in -> {
+				int size = in.getInt();
+				Collection<Object> result = collection.factory.apply(size);
+				for (int i = 0; i < size; i++)
+				{
+					result.add(readElement(element, in));
+				}
+				return result;
+			});
+		}
+
+		Containers.MapSpec map = (Containers.MapSpec) container;
+		ValueCodec key = elementCodec(map.key, name);
+		ValueCodec mapValue = elementCodec(map.value, name);
+		return new ValueCodec((value, out, path) -> {
+			Map<?, ?> entries = (Map<?, ?>) value;
+			out.writeInt(entries.size());
+			for (Map.Entry<?, ?> entry : entries.entrySet())
+			{
+				writeElement(key, entry.getKey(), out, path);
+				writeElement(mapValue, entry.getValue(), out, path);
+			}
+		}, in -> {
+			int size = in.getInt();
+			Map<Object, Object> result = map.factory.apply(size);
+			for (int i = 0; i < size; i++)
+			{
+				result.put(readElement(key, in), readElement(mapValue, in));
+			}
+			return result;
+		});
+	}
+
+	static ValueCodec elementCodec(Containers.Element element, String name)
+	{
+		return valueCodec(element.type, element.container, name);
+	}
+
+	static void writeElement(ValueCodec codec, Object value, DataOutput out, List<Object> path) throws IOException
+	{
+		out.writeBoolean(value != null);
+		if (value != null)
+		{
+			codec.write(value, out, path);
+		}
+	}
+
+	static Object readElement(ValueCodec codec, ByteBuffer in)
+	{
+		return in.get() != 0 ? codec.read(in) : null;
+	}
+
+	static MethodHandle parseMethod(Class<?> type, String name)
+	{
+		try
+		{
+			return MethodHandles.publicLookup().findStatic(type, "parse", MethodType.methodType(type, CharSequence.class));
+		}
+		catch (ReflectiveOperationException e)
+		{
+			throw new FabricationException(String.format("Unable to store field %s in a fixture as %s can't be parsed", name, type.getName()));
+		}
+	}
+
+	static void writeString(String value, DataOutput out) throws IOException
+	{
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	static String readString(ByteBuffer in)
+	{
+		byte[] bytes = new byte[in.getInt()];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	interface FieldWrite
+	{
+		void write(Object target, DataOutput out, List<Object> path) throws IOException, IllegalAccessException;
+	}
+
+	interface FieldRead
+	{
+		void read(Object target, ByteBuffer in) throws IllegalAccessException;
+	}
+
+	interface ValueWrite
+	{
+		void write(Object value, DataOutput out, List<Object> path) throws IOException;
+	}
+
+	interface ValueRead
+	{
+		Object read(ByteBuffer in);
+	}
+
+	static class FieldCodec
+	{
+		private final FieldWrite write;
+		private final FieldRead read;
+
+		FieldCodec(FieldWrite write, FieldRead read)
+		{
+			this.write = write;
+			this.read = read;
+		}
+
+		void write(Object target, DataOutput out, List<Object> path) throws IOException, IllegalAccessException
+		{
+			write.write(target, out, path);
+		}
+
+		void read(Object target, ByteBuffer in) throws IllegalAccessException
+		{
+			read.read(target, in);
+		}
+	}
+
+	static class ValueCodec
+	{
+		private final ValueWrite write;
+		private final ValueRead read;
+
+		ValueCodec(ValueWrite write, ValueRead read)
+		{
+			this.write = write;
+			this.read = read;
+		}
+
+		void write(Object value, DataOutput out, List<Object> path) throws IOException
+		{
+			write.write(value, out, path);
+		}
+
+		Object read(ByteBuffer in)
+		{
+			return read.read(in);
+		}
+	}
+}
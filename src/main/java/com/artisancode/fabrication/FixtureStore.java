@@ -0,0 +1,292 @@
+package com.artisancode.fabrication;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+// Persists fabricated collections in a compact binary form so later runs (e.g. every surefire fork) can memory map
+// them instead of fabricating them again. Elements are only decoded when they are first accessed.
+//
+// A fixture is keyed by the element class's field layout, every configuration setting that changes what is fabricated
+// (including the custom generators, see generatorHash), the collection size and a caller supplied plan key. The
+// modifications are lambdas applied per index and can't be told apart, so the plan key has to change whenever they do
+public class FixtureStore
+{
+	private static final int MAGIC = 0x46414246; // FABF
+	private static final int FORMAT_VERSION = 1;
+	// magic, version, key, count
+	private static final int HEADER_SIZE = 4 + 4 + 8 + 4;
+
+	protected final Path directory;
+
+	public FixtureStore(Path directory)
+	{
+		this.directory = directory;
+	}
+
+	public <T> List<T> load(CollectionBuilder<T> builder, String planKey) throws IOException
+	{
+		long key = key(builder, planKey);
+		Path file = fileFor(builder, key);
+
+		List<T> result = Files.exists(file) ? open(file, key, builder.target) : null;
+		if (result == null)
+		{
+			// Missing, or left behind by a different format
+			store(builder, key, file);
+			result = open(file, key, builder.target);
+		}
+		return result;
+	}
+
+	public <T> Path fileFor(CollectionBuilder<T> builder, String planKey)
+	{
+		return fileFor(builder, key(builder, planKey));
+	}
+
+	protected Path fileFor(CollectionBuilder<?> builder, long key)
+	{
+		return directory.resolve(String.format("%s-%016x.fixture", builder.target.getSimpleName(), key));
+	}
+
+	static long key(CollectionBuilder<?> builder, String planKey)
+	{
+		FabricatorConfiguration configuration = builder.configuration;
+		long hash = FixtureCodec.structureHash(builder.target);
+		hash = FixtureCodec.hash(hash, builder.target.getName());
+		hash = FixtureCodec.hash(hash, String.format("%d/%d/%s/%s/%d/%d/%s/%s/%s/%s/%d/%d/%s",
+		                                             builder.size,
+		                                             configuration.generationSeed,
+		                                             configuration.recursive,
+		                                             configuration.useFieldNameForString,
+		                                             configuration.recurseLimit,
+		                                             configuration.containerSize,
+		                                             configuration.lazyContainers,
+		                                             configuration.instanceSharing,
+		                                             configuration.shareInstancesAcrossCollection,
+		                                             configuration.lazyProxies,
+		                                             configuration.maxObjects,
+		                                             configuration.maxEstimatedBytes,
+		                                             configuration.budgetFallback));
+
+		// Class identity hashes differ between runs, so the generators are keyed in type name order
+		List<Map.Entry<Class<?>, Supplier<Object>>> generators = new ArrayList<>(configuration.customGenerators.entrySet());
+		generators.sort(Comparator.comparing(x -> x.getKey().getName()));
+		for (Map.Entry<Class<?>, Supplier<Object>> generator : generators)
+		{
+			hash = FixtureCodec.hash(hash, generator.getKey().getName());
+			hash = generatorHash(hash, generator.getValue());
+		}
+		hash = generatorHash(hash, configuration.currentDate);
+		hash = generatorHash(hash, configuration.currentInstant);
+		hash = generatorHash(hash, configuration.currentZonedDateTime);
+		hash = generatorHash(hash, configuration.currentLocalDateTime);
+
+		return FixtureCodec.hash(hash, planKey);
+	}
+
+	// Generators are code, so they are keyed by the class file their code is compiled into (for a lambda, the class that
+	// declares it), the generator's own class name and any simple values it captured. Editing that class or capturing a
+	// different value gives a new fixture; the name tells lambdas of the same class apart
+	static long generatorHash(long hash, Object generator)
+	{
+		Class<?> type = generator.getClass();
+		String name = type.getName();
+		int lambda = name.indexOf("$$Lambda");
+		String declaring = lambda >= 0 ? name.substring(0, lambda) : name;
+		// Runtime generated classes end in an address or identity hash, which differs between runs
+		int suffix = name.indexOf('/');
+		hash = FixtureCodec.hash(hash, suffix >= 0 ? name.substring(0, suffix) : name);
+
+		ClassLoader loader = type.getClassLoader();
+		if (loader != null)
+		{
+			try (InputStream classFile = loader.getResourceAsStream(declaring.replace('.', '/') + ".class"))
+			{
+				if (classFile != null)
+				{
+					byte[] buffer = new byte[8192];
+					for (int read = classFile.read(buffer); read > 0; read = classFile.read(buffer))
+					{
+						for (int i = 0; i < read; i++)
+						{
+							hash ^= buffer[i] & 0xff;
+							hash *= 0x100000001b3L;
+						}
+					}
+				}
+			}
+			catch (IOException e)
+			{
+				throw new FabricationException(e);
+			}
+		}
+
+		for (Field field : type.getDeclaredFields())
+		{
+			if (Modifier.isStatic(field.getModifiers()))
+			{
+				continue;
+			}
+
+			try
+			{
+				field.setAccessible(true);
+				Object value = field.get(generator);
+				if (value instanceof String || value instanceof Number || value instanceof Boolean || value instanceof Character || value instanceof Enum)
+				{
+					hash = FixtureCodec.hash(hash, field.getName() + "=" + value);
+				}
+			}
+			catch (ReflectiveOperationException | RuntimeException e)
+			{
+				// Captured state that can't be read is left out, like captured objects are
+			}
+		}
+		return hash;
+	}
+
+	protected <T> void store(CollectionBuilder<T> builder, long key, Path file) throws IOException
+	{
+		Files.createDirectories(directory);
+		Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+		try
+		{
+			FixtureCodec codec = FixtureCodec.of(builder.target);
+			int[] offsets = new int[builder.size];
+
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16)))
+			{
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				out.writeLong(key);
+				out.writeInt(offsets.length);
+
+				// Elements are fabricated and written one at a time
+				// Offsets are ints, so stop as soon as the records and the offset table could no longer fit in 2GB (size()
+				// stops counting at Integer.MAX_VALUE)
+				long limit = Integer.MAX_VALUE - 4L * offsets.length;
+				int index = 0;
+				for (T element : (Iterable<T>) builder::iterator)
+				{
+					offsets[index++] = out.size();
+					codec.write(element, out);
+
+					if (out.size() >= limit)
+					{
+						throw new FabricationException(String.format("Unable to store %d elements of %s as the fixture would be larger than 2GB", offsets.length, builder.target.getName()));
+					}
+				}
+
+				for (int offset : offsets)
+				{
+					out.writeInt(offset);
+				}
+			}
+
+			try
+			{
+				// Concurrent forks may store the same fixture, whichever finishes last wins
+				Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (AtomicMoveNotSupportedException e)
+			{
+				Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally
+		{
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	protected <T> List<T> open(Path file, long key, Class<? extends T> target) throws IOException
+	{
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			// The mapping stays valid after the channel is closed
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION || buffer.getLong(8) != key)
+		{
+			return null;
+		}
+
+		int count = buffer.getInt(16);
+		long offsetsStart = buffer.capacity() - count * 4L;
+		if (count < 0 || offsetsStart < HEADER_SIZE)
+		{
+			return null;
+		}
+
+		return new MappedFixtureList<>(buffer, count, (int) offsetsStart, FixtureCodec.of(target));
+	}
+
+	protected static class MappedFixtureList<T> extends AbstractList<T> implements RandomAccess
+	{
+		private final ByteBuffer buffer;
+		private final int offsetsStart;
+		private final FixtureCodec codec;
+		private final AtomicReferenceArray<T> decoded;
+
+		MappedFixtureList(ByteBuffer buffer, int count, int offsetsStart, FixtureCodec codec)
+		{
+			this.buffer = buffer;
+			this.offsetsStart = offsetsStart;
+			this.codec = codec;
+			decoded = new AtomicReferenceArray<>(count);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public T get(int index)
+		{
+			T result = decoded.get(index);
+			if (result == null)
+			{
+				// Every decode reads through its own view, so concurrent reads never move each other's position
+				ByteBuffer element = buffer.duplicate();
+				element.position(buffer.getInt(offsetsStart + index * 4));
+
+				decoded.compareAndSet(index, null, (T) codec.read(element));
+				result = decoded.get(index);
+			}
+			return result;
+		}
+
+		@Override
+		public T set(int index, T element)
+		{
+			T previous = get(index);
+			decoded.set(index, element);
+			return previous;
+		}
+
+		@Override
+		public int size()
+		{
+			return decoded.length();
+		}
+	}
+}
@@ -0,0 +1,17 @@
+package com.artisancode.fabrication;
+
+// Emits Java Flight Recorder events for fabrication. This is the Java 8 build, which has no JFR API to emit to and so
+// does nothing; the Java 11+ build in META-INF/versions/11 of the multi-release jar emits the events
+public class FlightRecorderListener implements FabricationListener
+{
+	public static boolean isSupported()
+	{
+		return false;
+	}
+
+	@Override
+	public boolean tracksGraph()
+	{
+		return false;
+	}
+}
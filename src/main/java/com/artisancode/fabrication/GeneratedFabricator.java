@@ -0,0 +1,8 @@
+package com.artisancode.fabrication;
+
+public interface GeneratedFabricator<T>
+{
+	Class<T> target();
+
+	T fabricate(FabricatorConfiguration configuration);
+}
@@ -0,0 +1,35 @@
+package com.artisancode.fabrication;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+public final class GeneratedFabricators
+{
+	private GeneratedFabricators()
+	{
+	}
+
+	@SuppressWarnings("unchecked")
+	public static <T> GeneratedFabricator<T> of(Class<T> target)
+	{
+		return (GeneratedFabricator<T>) Registry.fabricators.get(target);
+	}
+
+	// Loaded once, on first use, from every META-INF/services entry the annotation processor wrote
+	private static final class Registry
+	{
+		static final Map<Class<?>, GeneratedFabricator<?>> fabricators = load();
+
+		static Map<Class<?>, GeneratedFabricator<?>> load()
+		{
+			Map<Class<?>, GeneratedFabricator<?>> result = new HashMap<>();
+			for (GeneratedFabricator<?> fabricator : ServiceLoader.load(GeneratedFabricator.class))
+			{
+				result.put(fabricator.target(), fabricator);
+			}
+			return Collections.unmodifiableMap(result);
+		}
+	}
+}
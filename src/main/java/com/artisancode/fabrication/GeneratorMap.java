@@ -0,0 +1,307 @@
+package com.artisancode.fabrication;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// A generator map that counts its modifications so resolved generator lookups know when to refresh
+public class GeneratorMap extends HashMap<Class<?>, Supplier<Object>>
+{
+	private int version;
+	// Frozen maps reject every change, so they can be read from any number of threads without locking
+	private boolean frozen;
+
+	public GeneratorMap()
+	{
+	}
+
+	private GeneratorMap(Map<Class<?>, Supplier<Object>> generators)
+	{
+		super(generators);
+		frozen = true;
+	}
+
+	// An unmodifiable copy
+	public static GeneratorMap frozenCopyOf(Map<Class<?>, Supplier<Object>> generators)
+	{
+		return new GeneratorMap(generators);
+	}
+
+	public int version()
+	{
+		return version;
+	}
+
+	public boolean isFrozen()
+	{
+		return frozen;
+	}
+
+	private void modified()
+	{
+		if (frozen)
+		{
+			throw new UnsupportedOperationException("The generators of a frozen configuration can't be changed");
+		}
+		version++;
+	}
+
+	@Override
+	public Supplier<Object> put(Class<?> key, Supplier<Object> value)
+	{
+		modified();
+		return super.put(key, value);
+	}
+
+	@Override
+	public void putAll(Map<? extends Class<?>, ? extends Supplier<Object>> map)
+	{
+		modified();
+		super.putAll(map);
+	}
+
+	@Override
+	public Supplier<Object> remove(Object key)
+	{
+		modified();
+		return super.remove(key);
+	}
+
+	@Override
+	public void clear()
+	{
+		modified();
+		super.clear();
+	}
+
+	@Override
+	public Supplier<Object> putIfAbsent(Class<?> key, Supplier<Object> value)
+	{
+		modified();
+		return super.putIfAbsent(key, value);
+	}
+
+	@Override
+	public boolean remove(Object key, Object value)
+	{
+		modified();
+		return super.remove(key, value);
+	}
+
+	@Override
+	public boolean replace(Class<?> key, Supplier<Object> oldValue, Supplier<Object> newValue)
+	{
+		modified();
+		return super.replace(key, oldValue, newValue);
+	}
+
+	@Override
+	public Supplier<Object> replace(Class<?> key, Supplier<Object> value)
+	{
+		modified();
+		return super.replace(key, value);
+	}
+
+	@Override
+	public Supplier<Object> computeIfAbsent(Class<?> key, Function<? super Class<?>, ? extends Supplier<Object>> mappingFunction)
+	{
+		modified();
+		return super.computeIfAbsent(key, mappingFunction);
+	}
+
+	@Override
+	public Supplier<Object> computeIfPresent(Class<?> key, BiFunction<? super Class<?>, ? super Supplier<Object>, ? extends Supplier<Object>> remappingFunction)
+	{
+		modified();
+		return super.computeIfPresent(key, remappingFunction);
+	}
+
+	@Override
+	public Supplier<Object> compute(Class<?> key, BiFunction<? super Class<?>, ? super Supplier<Object>, ? extends Supplier<Object>> remappingFunction)
+	{
+		modified();
+		return super.compute(key, remappingFunction);
+	}
+
+	@Override
+	public Supplier<Object> merge(Class<?> key, Supplier<Object> value, BiFunction<? super Supplier<Object>, ? super Supplier<Object>, ? extends Supplier<Object>> remappingFunction)
+	{
+		modified();
+		return super.merge(key, value, remappingFunction);
+	}
+
+	@Override
+	public void replaceAll(BiFunction<? super Class<?>, ? super Supplier<Object>, ? extends Supplier<Object>> function)
+	{
+		modified();
+		super.replaceAll(function);
+	}
+
+	// The views can modify the map too, so their changes are counted (and rejected when frozen); reading through them,
+	// e.g. for toString, equals or copying the map, changes nothing
+	@Override
+	public Set<Class<?>> keySet()
+	{
+		return new TrackedSet<>(super.keySet());
+	}
+
+	@Override
+	public Collection<Supplier<Object>> values()
+	{
+		return new TrackedCollection<>(super.values());
+	}
+
+	@Override
+	public Set<Map.Entry<Class<?>, Supplier<Object>>> entrySet()
+	{
+		return new TrackedSet<Map.Entry<Class<?>, Supplier<Object>>>(super.entrySet())
+		{
+			@Override
+			Map.Entry<Class<?>, Supplier<Object>> track(Map.Entry<Class<?>, Supplier<Object>> entry)
+			{
+				return new TrackedEntry(entry);
+			}
+		};
+	}
+
+	private class TrackedCollection<E> extends AbstractCollection<E>
+	{
+		final Collection<E> view;
+
+		TrackedCollection(Collection<E> view)
+		{
+			this.view = view;
+		}
+
+		E track(E element)
+		{
+			return element;
+		}
+
+		@Override
+		public Iterator<E> iterator()
+		{
+			Iterator<E> iterator = view.iterator();
+			return new Iterator<E>()
+			{
+				@Override
+				public boolean hasNext()
+				{
+					return iterator.hasNext();
+				}
+
+				@Override
+				public E next()
+				{
+					return track(iterator.next());
+				}
+
+				@Override
+				public void remove()
+				{
+					modified();
+					iterator.remove();
+				}
+			};
+		}
+
+		@Override
+		public int size()
+		{
+			return view.size();
+		}
+
+		@Override
+		public boolean contains(Object element)
+		{
+			return view.contains(element);
+		}
+
+		@Override
+		public boolean remove(Object element)
+		{
+			modified();
+			return view.remove(element);
+		}
+
+		@Override
+		public void clear()
+		{
+			modified();
+			view.clear();
+		}
+	}
+
+	private class TrackedSet<E> extends TrackedCollection<E> implements Set<E>
+	{
+		TrackedSet(Set<E> view)
+		{
+			super(view);
+		}
+
+		@Override
+		public boolean equals(Object other)
+		{
+			return view.equals(other);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return view.hashCode();
+		}
+	}
+
+	private class TrackedEntry implements Map.Entry<Class<?>, Supplier<Object>>
+	{
+		private final Map.Entry<Class<?>, Supplier<Object>> entry;
+
+		TrackedEntry(Map.Entry<Class<?>, Supplier<Object>> entry)
+		{
+			this.entry = entry;
+		}
+
+		@Override
+		public Class<?> getKey()
+		{
+			return entry.getKey();
+		}
+
+		@Override
+		public Supplier<Object> getValue()
+		{
+			return entry.getValue();
+		}
+
+		@Override
+		public Supplier<Object> setValue(Supplier<Object> value)
+		{
+			modified();
+			return entry.setValue(value);
+		}
+
+		@Override
+		public boolean equals(Object other)
+		{
+			return entry.equals(other);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return entry.hashCode();
+		}
+
+		@Override
+		public String toString()
+		{
+			return entry.toString();
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package com.artisancode.fabrication;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Custom and default generators of one configuration merged into a single lookup per type
+public class GeneratorRegistry
+{
+	protected final Map<Class<?>, Supplier<Object>> customGenerators;
+	protected final int version;
+	protected final Map<Class<?>, Supplier<Object>> defaultGenerators;
+	// A map per registry rather than a ClassValue: ClassValue entries are held strongly by the class, and resolutions
+	// capture the configuration through its generators, so every configuration ever resolved would stay reachable
+	private final ConcurrentHashMap<Class<?>, Resolution> resolutions = new ConcurrentHashMap<>();
+	// Plain maps can't report their changes, so their resolutions are checked against the map on every lookup instead
+	private final boolean tracked;
+
+	public GeneratorRegistry(Map<Class<?>, Supplier<Object>> customGenerators,
+	                         int version,
+	                         Map<Class<?>, Supplier<Object>> defaultGenerators)
+	{
+		this.customGenerators = customGenerators;
+		this.version = version;
+		this.defaultGenerators = defaultGenerators;
+		this.tracked = customGenerators instanceof GeneratorMap;
+	}
+
+	public Resolution resolve(Class<?> type)
+	{
+		Resolution result = resolutions.get(type);
+		if (result == null || (!tracked && !result.isCurrentFor(customGenerators.get(type))))
+		{
+			result = new Resolution(type, customGenerators.get(type), defaultGenerators.get(type));
+			resolutions.put(type, result);
+		}
+		return result;
+	}
+
+	boolean isCurrentFor(Map<Class<?>, Supplier<Object>> generators)
+	{
+		return generators == customGenerators && (!tracked || ((GeneratorMap) generators).version() == version);
+	}
+
+	public static class Resolution
+	{
+		protected final Supplier<Object> generator;
+		protected final boolean custom;
+		protected final Object enumConstant;
+		protected final boolean fabricatable;
+		// Lists, sets, maps and arrays are built as containers rather than fabricated
+		protected final Containers.Spec container;
+
+		public Resolution(Class<?> type, Supplier<Object> customGenerator, Supplier<Object> defaultGenerator)
+		{
+			this.generator = customGenerator != null ? customGenerator : defaultGenerator;
+			this.custom = customGenerator != null;
+			this.enumConstant = FabricationField.firstEnumConstant(type);
+			this.container = Containers.of(type);
+			this.fabricatable = container == null && FabricationField.canFabricate(type);
+		}
+
+		boolean isCurrentFor(Supplier<Object> customGenerator)
+		{
+			return (custom ? generator : null) == customGenerator;
+		}
+
+		public Supplier<Object> getGenerator()
+		{
+			return generator;
+		}
+
+		public boolean isCustom()
+		{
+			return custom;
+		}
+
+		public Object getEnumConstant()
+		{
+			return enumConstant;
+		}
+
+		public boolean isFabricatable()
+		{
+			return fabricatable;
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package com.artisancode.fabrication;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+// Picks count distinct indices out of [0, size) without boxing, choosing the cheapest strategy for the ratio
+public final class IndexSampler
+{
+	static final double SPARSE_RATIO = 0.05;
+	static final double DENSE_RATIO = 0.5;
+
+	private IndexSampler()
+	{
+	}
+
+	// Returns the selected indices sorted ascending; the same random seed always gives the same selection
+	public static int[] sample(Random random, int count, int size)
+	{
+		if (count < 0 || count > size)
+		{
+			throw new FabricationException(String.format("Unable to select %d indices out of %d", count, size));
+		}
+
+		double ratio = size == 0 ? 0 : (double) count / size;
+		if (ratio > DENSE_RATIO)
+		{
+			return complement(random, count, size);
+		}
+
+		if (ratio > SPARSE_RATIO)
+		{
+			return partialShuffle(random, count, size);
+		}
+
+		return floyd(random, count, size);
+	}
+
+	// Floyd's algorithm: exactly count draws and O(count) memory, best when only a few indices are needed
+	static int[] floyd(Random random, int count, int size)
+	{
+		int[] table = new int[Math.max(2, Integer.highestOneBit(Math.max(1, count) * 2) << 1)];
+		Arrays.fill(table, -1);
+
+		int[] result = new int[count];
+		int position = 0;
+		for (int j = size - count; j < size; j++)
+		{
+			int candidate = random.nextInt(j + 1);
+			if (!insert(table, candidate))
+			{
+				// Already taken, so take j instead (which can't have been picked yet)
+				insert(table, j);
+				candidate = j;
+			}
+			result[position++] = candidate;
+		}
+
+		Arrays.sort(result);
+		return result;
+	}
+
+	// Partial Fisher-Yates over an int[]: count draws with no rejection, for the middle ratios
+	static int[] partialShuffle(Random random, int count, int size)
+	{
+		int[] indices = new int[size];
+		for (int i = 0; i < size; i++)
+		{
+			indices[i] = i;
+		}
+
+		for (int i = 0; i < count; i++)
+		{
+			int swap = i + random.nextInt(size - i);
+			int value = indices[swap];
+			indices[swap] = indices[i];
+			indices[i] = value;
+		}
+
+		int[] result = Arrays.copyOf(indices, count);
+		Arrays.sort(result);
+		return result;
+	}
+
+	// When most indices are needed, pick the ones to leave out and return everything else
+	static int[] complement(Random random, int count, int size)
+	{
+		int excludedCount = size - count;
+		BitSet excluded = new BitSet(size);
+		for (int j = size - excludedCount; j < size; j++)
+		{
+			int candidate = random.nextInt(j + 1);
+			excluded.set(excluded.get(candidate) ? j : candidate);
+		}
+
+		int[] result = new int[count];
+		int position = 0;
+		for (int i = excluded.nextClearBit(0); i < size; i = excluded.nextClearBit(i + 1))
+		{
+			result[position++] = i;
+		}
+		return result;
+	}
+
+	// Open addressing insert into a table of non-negative ints, returns false if the value was already present
+	private static boolean insert(int[] table, int value)
+	{
+		int mask = table.length - 1;
+		int hash = value * 0x9E3779B1;
+		int slot = (hash ^ (hash >>> 16)) & mask;
+		while (table[slot] != -1)
+		{
+			if (table[slot] == value)
+			{
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+		table[slot] = value;
+		return true;
+	}
+}
@@ -0,0 +1,6 @@
+package com.artisancode.fabrication;
+
+public interface IndexSelector
+{
+	boolean contains(int index);
+}
@@ -0,0 +1,13 @@
+package com.artisancode.fabrication;
+
+// Whether nested objects are fabricated for every field or shared within a graph. Whatever the mode, a shared object
+// is never the object that was asked for (or a CollectionBuilder element) itself
+public enum InstanceSharing
+{
+	// Every nested object field gets an object of its own (the default)
+	NONE,
+	// One object per type and depth; a type that is already being built further up closes into a cycle
+	PER_DEPTH,
+	// One object per type, wherever it appears; references to a type that is still being built close into a cycle
+	PER_TYPE
+}
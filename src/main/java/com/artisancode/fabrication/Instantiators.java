@@ -0,0 +1,92 @@
+package com.artisancode.fabrication;
+
+import org.objenesis.Objenesis;
+import org.objenesis.ObjenesisStd;
+import org.objenesis.instantiator.ObjectInstantiator;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+
+public final class Instantiators
+{
+	// One process-wide Objenesis (with its own strategy cache) shared by every builder
+	private static final Objenesis objenesis = new ObjenesisStd(true);
+
+	private static final ClassValue<ObjectInstantiator<?>> instantiators = new ClassValue<ObjectInstantiator<?>>()
+	{
+		@Override
+		protected ObjectInstantiator<?> computeValue(Class<?> type)
+		{
+			MethodHandle constructor = findNoArgConstructor(type);
+			if (constructor != null)
+			{
+				return new ConstructorInstantiator<>(constructor);
+			}
+
+			return objenesis.getInstantiatorOf(type);
+		}
+	};
+
+	private Instantiators()
+	{
+	}
+
+	@SuppressWarnings("unchecked")
+	public static <T> ObjectInstantiator<T> of(Class<T> type)
+	{
+		return (ObjectInstantiator<T>) instantiators.get(type);
+	}
+
+	public static <T> T newInstance(Class<T> type)
+	{
+		return of(type).newInstance();
+	}
+
+	static MethodHandle findNoArgConstructor(Class<?> type)
+	{
+		if (!Modifier.isPublic(type.getModifiers()) || Modifier.isAbstract(type.getModifiers()))
+		{
+			return null;
+		}
+
+		try
+		{
+			Constructor<?> constructor = type.getConstructor();
+			return MethodHandles.publicLookup()
+			                    .unreflectConstructor(constructor)
+			                    .asType(MethodType.methodType(Object.class));
+		}
+		catch (NoSuchMethodException | IllegalAccessException e)
+		{
+			// No usable constructor, fall back to Objenesis
+			return null;
+		}
+	}
+
+	static class ConstructorInstantiator<T> implements ObjectInstantiator<T>
+	{
+		private final MethodHandle constructor;
+
+		ConstructorInstantiator(MethodHandle constructor)
+		{
+			this.constructor = constructor;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public T newInstance()
+		{
+			try
+			{
+				return (T) (Object) constructor.invokeExact();
+			}
+			catch (Throwable e)
+			{
+				throw FabricationException.rethrow(e);
+			}
+		}
+	}
+}
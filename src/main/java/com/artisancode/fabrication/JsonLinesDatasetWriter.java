@@ -0,0 +1,186 @@
+package com.artisancode.fabrication;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// One JSON object per line. Nested objects are written as JSON objects using their own plans, arrays and Iterables as
+// JSON arrays, Maps as JSON objects, and any other JDK type as a string
+public class JsonLinesDatasetWriter extends DatasetWriter
+{
+	// The objects being written, outermost first; JSON can't express a graph that refers back to one of them
+	protected final List<Object> path = new ArrayList<>();
+
+	public JsonLinesDatasetWriter()
+	{
+	}
+
+	public JsonLinesDatasetWriter(int bufferSize)
+	{
+		super(bufferSize);
+	}
+
+	@Override
+	protected void header(List<FabricationField> columns, StringBuilder out)
+	{
+		// JSON Lines has no header
+	}
+
+	@Override
+	protected void record(List<FabricationField> columns, Object element, StringBuilder out)
+	{
+		path.clear();
+		appendObject(columns, element, out);
+		out.append('\n');
+	}
+
+	protected void appendObject(List<FabricationField> fields, Object element, StringBuilder out)
+	{
+		for (Object ancestor : path)
+		{
+			if (ancestor == element)
+			{
+				throw new FabricationException(String.format("Unable to write %s as JSON as it refers back to itself", element.getClass().getName()));
+			}
+		}
+		path.add(element);
+
+		out.append('{');
+		boolean first = true;
+		for (FabricationField field : fields)
+		{
+			if (Modifier.isStatic(field.field.getModifiers()))
+			{
+				continue;
+			}
+
+			if (!first)
+			{
+				out.append(',');
+			}
+			first = false;
+
+			appendString(field.name, out);
+			out.append(':');
+			appendValue(field.get(element), out);
+		}
+		out.append('}');
+
+		path.remove(path.size() - 1);
+	}
+
+	protected void appendValue(Object value, StringBuilder out)
+	{
+		if (value == null)
+		{
+			out.append("null");
+		}
+		else if (value instanceof Boolean || value instanceof Integer || value instanceof Long
+				         || value instanceof Short || value instanceof Byte)
+		{
+			out.append(value);
+		}
+		else if (value instanceof Double || value instanceof Float)
+		{
+			double number = ((Number) value).doubleValue();
+			// JSON has no NaN or infinity
+			out.append(Double.isNaN(number) || Double.isInfinite(number) ? "null" : value.toString());
+		}
+		else if (value instanceof Map)
+		{
+			out.append('{');
+			boolean first = true;
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet())
+			{
+				if (!first)
+				{
+					out.append(',');
+				}
+				first = false;
+
+				appendString(String.valueOf(entry.getKey()), out);
+				out.append(':');
+				appendValue(entry.getValue(), out);
+			}
+			out.append('}');
+		}
+		else if (value instanceof Iterable)
+		{
+			out.append('[');
+			boolean first = true;
+			for (Object item : (Iterable<?>) value)
+			{
+				if (!first)
+				{
+					out.append(',');
+				}
+				first = false;
+
+				appendValue(item, out);
+			}
+			out.append(']');
+		}
+		else if (value.getClass().isArray())
+		{
+			out.append('[');
+			for (int i = 0, length = Array.getLength(value); i < length; i++)
+			{
+				if (i > 0)
+				{
+					out.append(',');
+				}
+				appendValue(Array.get(value, i), out);
+			}
+			out.append(']');
+		}
+		else if (value.getClass().getClassLoader() == null || value instanceof Enum || Proxy.isProxyClass(value.getClass()))
+		{
+			// Strings, characters, dates, enums, lazy proxies and other JDK values
+			appendString(String.valueOf(value), out);
+		}
+		else
+		{
+			appendObject(FabricationPlan.peek(value.getClass()).fields, value, out);
+		}
+	}
+
+	static void appendString(String value, StringBuilder out)
+	{
+		out.append('"');
+		for (int i = 0; i < value.length(); i++)
+		{
+			char c = value.charAt(i);
+			switch (c)
+			{
+				case '"':
+					out.append("\\\"");
+					break;
+				case '\\':
+					out.append("\\\\");
+					break;
+				case '\n':
+					out.append("\\n");
+					break;
+				case '\r':
+					out.append("\\r");
+					break;
+				case '\t':
+					out.append("\\t");
+					break;
+				default:
+					if (c < 0x20)
+					{
+						out.append(String.format("\\u%04x", (int) c));
+					}
+					else
+					{
+						out.append(c);
+					}
+			}
+		}
+		out.append('"');
+	}
+}
@@ -0,0 +1,106 @@
+package com.artisancode.fabrication;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ConcurrentHashMap;
+
+// A stand-in for an interface typed field. Nothing is generated until a method is called; each getter (or other method)
+// then returns a value generated for its return type and property name, the same value on every call, and setters
+// replace the value their getter returns
+final class LazyProxy implements InvocationHandler
+{
+	private static final Object NULL = new Object();
+
+	private final Class<?> type;
+	private final FabricatorConfiguration configuration;
+	// The graph the proxy was created in, which what its methods generate later still belongs to
+	private final FabricationGraph graph;
+	// Keyed by property name for getters and setters, and by Method for anything else
+	private final ConcurrentHashMap<Object, Object> values = new ConcurrentHashMap<>();
+
+	private LazyProxy(Class<?> type, FabricatorConfiguration configuration)
+	{
+		this.type = type;
+		this.configuration = configuration;
+		this.graph = FabricationGraph.current();
+	}
+
+	static Object create(Class<?> type, FabricatorConfiguration configuration)
+	{
+		return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new LazyProxy(type, configuration));
+	}
+
+	static boolean canProxy(Class<?> type)
+	{
+		// JDK interfaces (Runnable, CharSequence, ...) have contracts a stand-in can't keep
+		return type.isInterface() && type.getClassLoader() != null;
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args)
+	{
+		String name = method.getName();
+		int parameters = method.getParameterCount();
+
+		if (method.getDeclaringClass() == Object.class)
+		{
+			if (name.equals("equals"))
+			{
+				return proxy == args[0];
+			}
+			if (name.equals("hashCode"))
+			{
+				return System.identityHashCode(proxy);
+			}
+			return "Lazy" + type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+		}
+
+		Class<?> returnType = method.getReturnType();
+		if (returnType == void.class)
+		{
+			if (parameters == 1 && name.length() > 3 && name.startsWith("set"))
+			{
+				values.put(decapitalize(name.substring(3)), args[0] == null ? NULL : args[0]);
+			}
+			return null;
+		}
+
+		Object key = method;
+		if (parameters == 0 && name.length() > 3 && name.startsWith("get"))
+		{
+			key = decapitalize(name.substring(3));
+		}
+		else if (parameters == 0 && name.length() > 2 && name.startsWith("is"))
+		{
+			key = decapitalize(name.substring(2));
+		}
+
+		String property = key instanceof String ? (String) key : name;
+		Object value = values.get(key);
+		if (value == null)
+		{
+			// Generated outside the map, since taking the graph's lock while holding one of the map's could deadlock
+			Object generated = FabricationGraph.within(graph, () -> {
+				Containers.Spec container = Containers.of(method.getGenericReturnType());
+				return container != null ? container.create(configuration, property) : configuration.generate(returnType, property);
+			});
+			Object previous = values.putIfAbsent(key, generated == null ? NULL : generated);
+			value = previous != null ? previous : generated == null ? NULL : generated;
+		}
+
+		if (value == NULL)
+		{
+			// Primitive results can't be null
+			return returnType.isPrimitive() ? configuration.generate(returnType, property) : null;
+		}
+		return value;
+	}
+
+	// Property names follow the JavaBeans rules (getURL is URL, getName is name) without needing java.desktop for them
+	static String decapitalize(String name)
+	{
+		boolean acronym = name.length() > 1 && Character.isUpperCase(name.charAt(0)) && Character.isUpperCase(name.charAt(1));
+		return acronym ? name : Character.toLowerCase(name.charAt(0)) + name.substring(1);
+	}
+}
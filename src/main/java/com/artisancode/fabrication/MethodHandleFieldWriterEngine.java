@@ -0,0 +1,141 @@
+package com.artisancode.fabrication;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+
+public class MethodHandleFieldWriterEngine extends CachingFieldWriterEngine
+{
+	public static final MethodHandleFieldWriterEngine INSTANCE = new MethodHandleFieldWriterEngine();
+
+	private static final MethodType genericSetter = MethodType.methodType(void.class, Object.class, Object.class);
+
+	@Override
+	protected FieldWriter createWriter(FabricationField field)
+	{
+		return methodHandleWriter(field);
+	}
+
+	static FieldWriter methodHandleWriter(FabricationField field)
+	{
+		if (Modifier.isStatic(field.field.getModifiers()))
+		{
+			// Static fields aren't worth a handle, keep the reflective behaviour for them
+			return ReflectionFieldWriterEngine.reflectiveWriter(field);
+		}
+
+		MethodHandle setter;
+		try
+		{
+			setter = MethodHandles.lookup().unreflectSetter(field.field);
+		}
+		catch (IllegalAccessException e)
+		{
+			// e.g. final fields; fall back to reflection
+			return ReflectionFieldWriterEngine.reflectiveWriter(field);
+		}
+
+		MethodHandle generic = setter.asType(genericSetter);
+		HandleWrite boxed = (target, configuration) -> {
+			generic.invokeExact(target, configuration.generate(field));
+		};
+
+		Class<?> type = field.type;
+		if (!type.isPrimitive())
+		{
+			return new MethodHandleFieldWriter(boxed);
+		}
+
+		// Primitive fields never box unless a custom generator or a listener needs the generated value
+		MethodHandle primitive = setter.asType(MethodType.methodType(void.class, Object.class, type));
+		HandleWrite unboxed;
+		if (type == int.class)
+		{
+			unboxed = (target, configuration) -> {
+				primitive.invokeExact(target, configuration.defaultInt());
+			};
+		}
+		else if (type == long.class)
+		{
+			unboxed = (target, configuration) -> {
+				primitive.invokeExact(target, configuration.defaultLong());
+			};
+		}
+		else if (type == double.class)
+		{
+			unboxed = (target, configuration) -> {
+				primitive.invokeExact(target, configuration.defaultDouble());
+			};
+		}
+		else if (type == float.class)
+		{
+			unboxed = (target, configuration) -> {
+				primitive.invokeExact(target, configuration.defaultFloat());
+			};
+		}
+		else if (type == short.class)
+		{
+			unboxed = (target, configuration) -> {
+				primitive.invokeExact(target, configuration.defaultShort());
+			};
+		}
+		else if (type == byte.class)
+		{
+			unboxed = (target, configuration) -> {
+				primitive.invokeExact(target, configuration.defaultByte());
+			};
+		}
+		else if (type == char.class)
+		{
+			unboxed = (target, configuration) -> {
+				primitive.invokeExact(target, configuration.defaultChar());
+			};
+		}
+		else
+		{
+			unboxed = (target, configuration) -> {
+				primitive.invokeExact(target, configuration.defaultBoolean());
+			};
+		}
+
+		return new MethodHandleFieldWriter((target, configuration) -> {
+			if (configuration.usesBoxedGenerator(type))
+			{
+				boxed.write(target, configuration);
+			}
+			else
+			{
+				unboxed.write(target, configuration);
+			}
+		});
+	}
+
+	interface HandleWrite
+	{
+		void write(Object target, FabricatorConfiguration configuration) throws Throwable;
+	}
+
+	static class MethodHandleFieldWriter implements FieldWriter
+	{
+		private final HandleWrite write;
+
+		MethodHandleFieldWriter(HandleWrite write)
+		{
+			this.write = write;
+		}
+
+		@Override
+		public void write(Object target, FabricatorConfiguration configuration)
+		{
+			try
+			{
+				write.write(target, configuration);
+			}
+			catch (Throwable e)
+			{
+				throw FabricationException.rethrow(e);
+			}
+		}
+	}
+}
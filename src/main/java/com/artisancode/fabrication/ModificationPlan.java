@@ -0,0 +1,235 @@
+package com.artisancode.fabrication;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+// The modifications of a CollectionBuilder, stored as ordered (selector, modifier) rules rather than per index
+public class ModificationPlan<T>
+{
+	protected final List<Rule<T>> rules = new ArrayList<>();
+
+	public void add(IndexSelector selector, Consumer<T> modifier)
+	{
+		rules.add(new Rule<>(selector, modifier));
+	}
+
+	public int size()
+	{
+		return rules.size();
+	}
+
+	public List<Consumer<T>> modificationsAt(int index)
+	{
+		List<Consumer<T>> result = new ArrayList<>();
+		for (Rule<T> rule : rules)
+		{
+			if (rule.selector.contains(index))
+			{
+				result.add(rule.modifier);
+			}
+		}
+		return result;
+	}
+
+	public Index<T> index(int size)
+	{
+		return new Index<>(rules, size);
+	}
+
+	protected static class Rule<T>
+	{
+		protected final IndexSelector selector;
+		protected final Consumer<T> modifier;
+
+		Rule(IndexSelector selector, Consumer<T> modifier)
+		{
+			this.selector = selector;
+			this.modifier = modifier;
+		}
+	}
+
+	// Interval index built at fabricate time: the collection is cut into segments at every range boundary and each
+	// segment keeps the ranges that cover it. Rules that aren't ranges could apply anywhere, so they are kept once in a
+	// list shared by every segment and merged back into rule order as they are applied
+	public static class Index<T>
+	{
+		private final int[] segmentStarts;
+		private final Rule<T>[][] segmentRanges;
+		private final int[][] segmentOrders;
+		private final Rule<T>[] shared;
+		private final int[] sharedOrders;
+
+		@SuppressWarnings("unchecked")
+		Index(List<Rule<T>> rules, int size)
+		{
+			// Each range becomes a start event and an end event, packed as position, rule number and direction so a
+			// single sort orders them. Ranges are clipped to the collection first, and empty ones are left out
+			long[] events = new long[rules.size() * 2];
+			int eventCount = 0;
+			List<Rule<T>> sharedRules = new ArrayList<>();
+			List<Integer> sharedRuleOrders = new ArrayList<>();
+			for (int order = 0; order < rules.size(); order++)
+			{
+				Rule<T> rule = rules.get(order);
+				if (!(rule.selector instanceof Range))
+				{
+					sharedRules.add(rule);
+					sharedRuleOrders.add(order);
+					continue;
+				}
+
+				Range range = (Range) rule.selector;
+				int start = Math.max(0, range.start);
+				int end = Math.min(size - 1, range.end);
+				if (start <= end)
+				{
+					events[eventCount++] = ((long) start << 32) | ((long) order << 1) | 1;
+					events[eventCount++] = ((long) (end + 1) << 32) | ((long) order << 1);
+				}
+			}
+			Arrays.sort(events, 0, eventCount);
+
+			shared = sharedRules.toArray(new Rule[sharedRules.size()]);
+			sharedOrders = sharedRuleOrders.stream().mapToInt(Integer::intValue).toArray();
+
+			// Sweep the events, starting a segment at each position where the live ranges change
+			List<Integer> starts = new ArrayList<>();
+			List<Rule<T>[]> ranges = new ArrayList<>();
+			List<int[]> orders = new ArrayList<>();
+			BitSet live = new BitSet(rules.size());
+			int event = 0;
+			int position = 0;
+			while (true)
+			{
+				while (event < eventCount && (int) (events[event] >>> 32) == position)
+				{
+					live.set((int) ((events[event] & 0xFFFFFFFFL) >>> 1), (events[event] & 1) != 0);
+					event++;
+				}
+
+				int[] segmentOrder = live.stream().toArray();
+				Rule<T>[] segmentRules = new Rule[segmentOrder.length];
+				for (int i = 0; i < segmentOrder.length; i++)
+				{
+					segmentRules[i] = rules.get(segmentOrder[i]);
+				}
+				starts.add(position);
+				ranges.add(segmentRules);
+				orders.add(segmentOrder);
+
+				if (event == eventCount || (int) (events[event] >>> 32) >= size)
+				{
+					break;
+				}
+				position = (int) (events[event] >>> 32);
+			}
+
+			segmentStarts = starts.stream().mapToInt(Integer::intValue).toArray();
+			segmentRanges = ranges.toArray(new Rule[ranges.size()][]);
+			segmentOrders = orders.toArray(new int[orders.size()][]);
+		}
+
+		public int segmentCount()
+		{
+			return segmentStarts.length;
+		}
+
+		public void apply(int index, T target)
+		{
+			int segment = Arrays.binarySearch(segmentStarts, index);
+			if (segment < 0)
+			{
+				segment = -segment - 2;
+			}
+
+			Rule<T>[] ranges = segmentRanges[segment];
+			int[] rangeOrders = segmentOrders[segment];
+			int range = 0;
+
+			// Modifiers chained onto the same selector are adjacent, so each selector is only evaluated once per index
+			IndexSelector lastSelector = null;
+			boolean lastResult = false;
+			for (int i = 0; i < shared.length; i++)
+			{
+				// Every range in the segment covers the index, so they apply without being checked
+				for (; range < ranges.length && rangeOrders[range] < sharedOrders[i]; range++)
+				{
+					ranges[range].modifier.accept(target);
+				}
+
+				Rule<T> rule = shared[i];
+				if (rule.selector != lastSelector)
+				{
+					lastSelector = rule.selector;
+					lastResult = lastSelector.contains(index);
+				}
+
+				if (lastResult)
+				{
+					rule.modifier.accept(target);
+				}
+			}
+
+			for (; range < ranges.length; range++)
+			{
+				ranges[range].modifier.accept(target);
+			}
+		}
+	}
+
+	public static class Range implements IndexSelector
+	{
+		protected final int start;
+		protected final int end;
+
+		// Both ends are inclusive
+		public Range(int start, int end)
+		{
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public boolean contains(int index)
+		{
+			return index >= start && index <= end;
+		}
+	}
+
+	public static class Indices implements IndexSelector
+	{
+		protected final int[] indices;
+
+		// The indices need to be sorted
+		public Indices(int[] indices)
+		{
+			this.indices = indices;
+		}
+
+		@Override
+		public boolean contains(int index)
+		{
+			return Arrays.binarySearch(indices, index) >= 0;
+		}
+	}
+
+	public static class Predicated implements IndexSelector
+	{
+		protected final IntPredicate predicate;
+
+		public Predicated(IntPredicate predicate)
+		{
+			this.predicate = predicate;
+		}
+
+		@Override
+		public boolean contains(int index)
+		{
+			return predicate.test(index);
+		}
+	}
+}
@@ -1,11 +1,10 @@
 package com.artisancode.fabrication;
 
-import org.objenesis.ObjenesisStd;
-
-import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Consumer;
 
 public class ObjectBuilder<T>
@@ -13,51 +12,200 @@ public class ObjectBuilder<T>
 	protected Class<? extends T> target;
 	protected FabricatorConfiguration configuration;
 	protected List<Consumer<T>> modifiers;
+	protected GeneratedFabricator<? extends T> generated;
+	// Set to share nested objects across everything this builder fabricates, rather than within each object's graph
+	protected SharedInstances sharedInstances;
 
 	public ObjectBuilder(Class<? extends T> target, FabricatorConfiguration configuration)
 	{
 		this.target = target;
-		this.configuration = configuration;
+		this.configuration = configuration.forFabrication();
 		modifiers = new ArrayList<>();
+		generated = GeneratedFabricators.of(target);
 	}
 
 	public T fabricate()
 	{
-		ObjenesisStd ctor = new ObjenesisStd();
-		T result = ctor.getInstantiatorOf(target).newInstance();
+		FabricationListener listener = configuration.listener;
+		long start = 0;
+		if (listener != null)
+		{
+			start = System.nanoTime();
+			listener.objectStarted(target, configuration.depth);
+		}
 
-		List<Field> fieldsToTarget = new ArrayList<>();
+		T result = create();
 
-		Class<?> classWithFields = result.getClass();
-		while (classWithFields.getSuperclass() != null) // we don't want to process Object.class
+		// Perform the specific object test modifications
+		for (Consumer<T> modifier : modifiers)
+		{
+			modifier.accept(result);
+		}
+
+		if (listener != null)
+		{
+			listener.objectFabricated(target, configuration.depth, System.nanoTime() - start);
+		}
+		return result;
+	}
+
+	protected T create()
+	{
+		if (configuration.tracksGraph())
+		{
+			// Sharing, budgets and listeners need to know which graph the object belongs to
+			return FabricationGraph.create(this);
+		}
+
+		return createUntracked();
+	}
+
+	protected T createUntracked()
+	{
+		if (generated != null)
 		{
-			Collections.addAll(fieldsToTarget, classWithFields.getDeclaredFields());
-			classWithFields = classWithFields.getSuperclass();
+			// Code generated at compile time by the fabrication-processor needs no reflection at all
+			return generated.fabricate(configuration);
 		}
-		fieldsToTarget.removeIf(x -> x.getName() == "this$0"); // remove the .this fields
+
+		CompiledFabricator compiled = configuration.useCompiledFabricators ? CompiledFabricator.of(target) : null;
+		if (compiled != null)
+		{
+			return (T) compiled.fabricate(configuration);
+		}
+
+		T result = Instantiators.newInstance(target);
+		writeFields(result, configuration);
+
+		return result;
+	}
+
+	static void writeFields(Object result, FabricatorConfiguration configuration)
+	{
+		FabricationPlan plan = FabricationPlan.of(result.getClass(), configuration.listener);
+		FieldWriter[] writers = configuration.fieldWriterEngine.writersFor(plan);
 
 		// Fill the object with default values
-		for (Field field : fieldsToTarget)
+		for (FieldWriter writer : writers)
+		{
+			writer.write(result, configuration);
+		}
+	}
+
+	// Resets every field of an existing instance to freshly generated values and then applies the modifiers, so
+	// repeated fabrication can reuse the same objects instead of allocating new ones
+	public T fabricateInto(T instance)
+	{
+		if (instance == null)
+		{
+			throw new FabricationException(String.format("Unable to fabricate into a null instance of %s", target.getName()));
+		}
+
+		FabricationListener listener = configuration.listener;
+		long start = 0;
+		if (listener != null)
 		{
-			Class<?> type = field.getType();
-			field.setAccessible(true);
-			try
+			start = System.nanoTime();
+			listener.objectStarted(instance.getClass(), configuration.depth);
+		}
+
+		fillTracked(instance, configuration, sharedInstances, Collections.newSetFromMap(new IdentityHashMap<>()));
+
+		for (Consumer<T> modifier : modifiers)
+		{
+			modifier.accept(instance);
+		}
+
+		if (listener != null)
+		{
+			listener.objectFabricated(instance.getClass(), configuration.depth, System.nanoTime() - start);
+		}
+		return instance;
+	}
+
+	// Refills a nested object in place, as if it had just been fabricated at the configuration's depth
+	static void refill(Object instance, FabricatorConfiguration configuration, SharedInstances sharedInstances, Set<Object> filled)
+	{
+		FabricationListener listener = configuration.listener;
+		long start = 0;
+		if (listener != null)
+		{
+			start = System.nanoTime();
+			listener.objectStarted(instance.getClass(), configuration.depth);
+		}
+
+		fillTracked(instance, configuration, sharedInstances, filled);
+
+		if (listener != null)
+		{
+			listener.objectFabricated(instance.getClass(), configuration.depth, System.nanoTime() - start);
+		}
+	}
+
+	private static void fillTracked(Object instance, FabricatorConfiguration configuration, SharedInstances sharedInstances, Set<Object> filled)
+	{
+		if (configuration.tracksGraph())
+		{
+			// Part of a graph like a new object would be, so sharing and budgets apply to whatever is generated
+			FabricationGraph.refill(instance, configuration, sharedInstances, () -> fill(instance, configuration, filled));
+		}
+		else
+		{
+			fill(instance, configuration, filled);
+		}
+	}
+
+	// Each object is only filled once, so shared objects and cycles in the existing graph are kept as they are
+	private static void fill(Object instance, FabricatorConfiguration configuration, Set<Object> filled)
+	{
+		filled.add(instance);
+		FabricationPlan plan = FabricationPlan.of(instance.getClass(), configuration.listener);
+		FieldWriter[] writers = configuration.fieldWriterEngine.writersFor(plan);
+		List<FabricationField> fields = plan.fields;
+
+		for (int i = 0; i < writers.length; i++)
+		{
+			FabricationField field = fields.get(i);
+			if (!field.type.isPrimitive() && configuration.refillsInPlace(field.type))
 			{
-				field.set(result, configuration.generate(type, field.getName()));
+				// Reuse the nested object already in the field rather than fabricating a new one
+				Object existing = field.get(instance);
+				if (existing != null && existing.getClass() == field.type && reuse(instance, field, existing, configuration, filled))
+				{
+					continue;
+				}
 			}
-			catch (IllegalAccessException e)
+
+			writers[i].write(instance, configuration);
+		}
+	}
+
+	// False when the field should be written as if it were empty, i.e. when the budget has no room for the object
+	private static boolean reuse(Object instance, FabricationField field, Object existing, FabricatorConfiguration configuration, Set<Object> filled)
+	{
+		if (configuration.instanceSharing != InstanceSharing.NONE)
+		{
+			// An object the graph already shares replaces the existing one, so the result is shaped like a new graph
+			Object shared = FabricationGraph.find(field.type, configuration.depth + 1);
+			if (shared != null)
 			{
-				throw new FabricationException(e);
+				field.set(instance, shared);
+				return true;
 			}
 		}
 
-		// Perform the specific object test modifications
-		for (Consumer<T> modifier : modifiers)
+		if (filled.contains(existing))
 		{
-			modifier.accept(result);
+			return true;
 		}
 
-		return result;
+		if (configuration.hasBudget() && !FabricationGraph.allows(field.type))
+		{
+			return false;
+		}
+
+		refill(existing, configuration.cloneForNextGeneration(), null, filled);
+		return true;
 	}
 
 	public ObjectBuilder<T> with(Consumer<T> property)
@@ -0,0 +1,400 @@
+package com.artisancode.fabrication;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+public class ObjectCopier
+{
+	private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+	private static final MethodType copyType = MethodType.methodType(void.class, Object.class, Object.class);
+
+	// Built once per class, like the fabrication plans they are derived from
+	private static final ClassValue<ObjectCopier> copiers = new ClassValue<ObjectCopier>()
+	{
+		@Override
+		protected ObjectCopier computeValue(Class<?> type)
+		{
+			return new ObjectCopier(type);
+		}
+	};
+
+	// Empty containers of the same kind as the containers being copied, made from the container itself so that what
+	// isn't part of its class (a sorted container's comparator, an enum container's enum type) is kept
+	private static final ClassValue<Function<Object, Object>> containers = new ClassValue<Function<Object, Object>>()
+	{
+		@Override
+		protected Function<Object, Object> computeValue(Class<?> type)
+		{
+			if (EnumSet.class.isAssignableFrom(type))
+			{
+				return source -> {
+					EnumSet<?> result = ((EnumSet<?>) source).clone();
+					result.clear();
+					return result;
+				};
+			}
+			if (EnumMap.class.isAssignableFrom(type))
+			{
+				return source -> {
+					EnumMap<?, ?> result = new EnumMap<>((EnumMap<?, ?>) source);
+					result.clear();
+					return result;
+				};
+			}
+
+			if (SortedSet.class.isAssignableFrom(type) || SortedMap.class.isAssignableFrom(type))
+			{
+				MethodHandle sorted = findComparatorConstructor(type);
+				if (sorted != null)
+				{
+					return source -> {
+						try
+						{
+							return sorted.invoke(comparator(source));
+						}
+						catch (Throwable e)
+						{
+							throw FabricationException.rethrow(e);
+						}
+					};
+				}
+
+				// e.g. unmodifiable views; the comparator still has to come along, or the copy sorts differently
+				return SortedSet.class.isAssignableFrom(type) ? source -> new TreeSet<>(comparator(source))
+						       : source -> new TreeMap<>(comparator(source));
+			}
+
+			if (Instantiators.findNoArgConstructor(type) != null)
+			{
+				return source -> Instantiators.newInstance(type);
+			}
+
+			// e.g. lazy or unmodifiable containers; copy into the closest standard one. Lazy containers are filled by
+			// being copied, so their copies are plain containers that are already filled
+			if (Set.class.isAssignableFrom(type))
+			{
+				return source -> new LinkedHashSet<>();
+			}
+			if (Queue.class.isAssignableFrom(type) && !List.class.isAssignableFrom(type))
+			{
+				return source -> new ArrayDeque<>();
+			}
+			if (Map.class.isAssignableFrom(type))
+			{
+				return source -> new LinkedHashMap<>();
+			}
+			return source -> new ArrayList<>();
+		}
+	};
+
+	// Unmodifiable and immutable JDK containers are copied into a standard container behind an unmodifiable view of the
+	// same kind, so the copy can't be changed either; every other container is its own view
+	private static final ClassValue<UnaryOperator<Object>> views = new ClassValue<UnaryOperator<Object>>()
+	{
+		@Override
+		@SuppressWarnings("unchecked")
+		protected UnaryOperator<Object> computeValue(Class<?> type)
+		{
+			String name = type.getName();
+			if (!name.startsWith("java.util.Collections$Unmodifiable") && !name.startsWith("java.util.ImmutableCollections$")
+					    && !name.startsWith("java.util.Collections$Empty") && !name.startsWith("java.util.Collections$Singleton"))
+			{
+				return UnaryOperator.identity();
+			}
+
+			if (NavigableSet.class.isAssignableFrom(type))
+			{
+				return copy -> Collections.unmodifiableNavigableSet((NavigableSet<Object>) copy);
+			}
+			if (SortedSet.class.isAssignableFrom(type))
+			{
+				return copy -> Collections.unmodifiableSortedSet((SortedSet<Object>) copy);
+			}
+			if (Set.class.isAssignableFrom(type))
+			{
+				return copy -> Collections.unmodifiableSet((Set<Object>) copy);
+			}
+			if (List.class.isAssignableFrom(type))
+			{
+				return copy -> Collections.unmodifiableList((List<Object>) copy);
+			}
+			if (NavigableMap.class.isAssignableFrom(type))
+			{
+				return copy -> Collections.unmodifiableNavigableMap((NavigableMap<Object, Object>) copy);
+			}
+			if (SortedMap.class.isAssignableFrom(type))
+			{
+				return copy -> Collections.unmodifiableSortedMap((SortedMap<Object, Object>) copy);
+			}
+			if (Map.class.isAssignableFrom(type))
+			{
+				return copy -> Collections.unmodifiableMap((Map<Object, Object>) copy);
+			}
+			return copy -> Collections.unmodifiableCollection((Collection<Object>) copy);
+		}
+	};
+
+	protected final Supplier<Object> constructor;
+	// (copy, source) -> void, copying every instance field in one straight-line handle
+	protected final MethodHandle copyFields;
+	// Reference fields that a deep copy has to copy again
+	protected final FabricationField[] nested;
+
+	protected ObjectCopier(Class<?> type)
+	{
+		constructor = CompiledFabricator.constructor(type);
+
+		List<FabricationField> nestedFields = new ArrayList<>();
+		try
+		{
+			MethodHandle fields = lookup.findStatic(ObjectCopier.class, "noFields", copyType);
+			List<FabricationField> planFields = FabricationPlan.peek(type).fields;
+			for (int i = planFields.size() - 1; i >= 0; i--)
+			{
+				FabricationField field = planFields.get(i);
+				if (Modifier.isStatic(field.field.getModifiers()))
+				{
+					continue;
+				}
+
+				fields = MethodHandles.foldArguments(fields, fieldCopy(field));
+				if (isNested(field.type))
+				{
+					nestedFields.add(0, field);
+				}
+			}
+			copyFields = fields;
+		}
+		catch (ReflectiveOperationException e)
+		{
+			throw new FabricationException(e);
+		}
+
+		nested = nestedFields.toArray(new FabricationField[nestedFields.size()]);
+	}
+
+	@SuppressWarnings("unchecked")
+	public static <T> T copy(T source, PrototypeCopy depth)
+	{
+		if (source == null)
+		{
+			return null;
+		}
+
+		Class<?> type = source.getClass();
+		if (!isNested(type))
+		{
+			// Immutable values are never copied
+			return source;
+		}
+
+		if (type.getClassLoader() != null)
+		{
+			ObjectCopier copier = copiers.get(type);
+			if (depth == PrototypeCopy.SHALLOW || copier.nested.length == 0)
+			{
+				// Nothing nested to copy, so a deep copy is the same as a shallow one
+				return (T) copier.shallowCopy(source);
+			}
+		}
+
+		// Track the copies made so far so that shared (or cyclic) references stay shared in the copy
+		return (T) deepCopy(source, new IdentityHashMap<>());
+	}
+
+	protected Object shallowCopy(Object source)
+	{
+		Object result = constructor.get();
+		try
+		{
+			copyFields.invokeExact(result, source);
+		}
+		catch (Throwable e)
+		{
+			throw FabricationException.rethrow(e);
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	protected static Object deepCopy(Object source, Map<Object, Object> copies)
+	{
+		Object existing = copies.get(source);
+		if (existing != null)
+		{
+			return existing;
+		}
+
+		if (source instanceof Date)
+		{
+			Object result = ((Date) source).clone();
+			copies.put(source, result);
+			return result;
+		}
+
+		if (source.getClass().isArray())
+		{
+			int length = Array.getLength(source);
+			Class<?> component = source.getClass().getComponentType();
+			Object result = Array.newInstance(component, length);
+			copies.put(source, result);
+			if (component.isPrimitive())
+			{
+				// Copied in one go rather than boxing every element through Array.get and set
+				System.arraycopy(source, 0, result, 0, length);
+				return result;
+			}
+
+			for (int i = 0; i < length; i++)
+			{
+				Array.set(result, i, deepCopyValue(Array.get(source, i), copies));
+			}
+			return result;
+		}
+
+		if (source instanceof Collection)
+		{
+			Collection<Object> result = (Collection<Object>) containers.get(source.getClass()).apply(source);
+			Object view = views.get(source.getClass()).apply(result);
+			copies.put(source, view);
+			for (Object element : (Collection<?>) source)
+			{
+				result.add(deepCopyValue(element, copies));
+			}
+			return view;
+		}
+
+		if (source instanceof Map)
+		{
+			Map<Object, Object> result = (Map<Object, Object>) containers.get(source.getClass()).apply(source);
+			Object view = views.get(source.getClass()).apply(result);
+			copies.put(source, view);
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) source).entrySet())
+			{
+				result.put(deepCopyValue(entry.getKey(), copies), deepCopyValue(entry.getValue(), copies));
+			}
+			return view;
+		}
+
+		ObjectCopier copier = copiers.get(source.getClass());
+		Object result = copier.shallowCopy(source);
+		copies.put(source, result);
+
+		for (FabricationField field : copier.nested)
+		{
+			Object value = field.get(result);
+			if (value != null)
+			{
+				field.set(result, deepCopyValue(value, copies));
+			}
+		}
+		return result;
+	}
+
+	// Container elements are only copied when their own class needs it
+	protected static Object deepCopyValue(Object value, Map<Object, Object> copies)
+	{
+		return value != null && isNested(value.getClass()) ? deepCopy(value, copies) : value;
+	}
+
+	static boolean isNested(Class<?> type)
+	{
+		if (type.isPrimitive() || type.isEnum() || Proxy.isProxyClass(type))
+		{
+			// Lazy proxies are shared like immutable values
+			return false;
+		}
+
+		// JDK value types (String, boxed primitives, java.time) are immutable and safe to share; dates and containers aren't
+		return type.getClassLoader() != null
+				       || type.isArray()
+				       || Date.class.isAssignableFrom(type)
+				       || Iterable.class.isAssignableFrom(type)
+				       || Map.class.isAssignableFrom(type);
+	}
+
+	static MethodHandle fieldCopy(FabricationField field) throws ReflectiveOperationException
+	{
+		MethodHandle getter = lookup.unreflectGetter(field.field)
+		                            .asType(MethodType.methodType(field.type, Object.class));
+		MethodHandle setter;
+		try
+		{
+			setter = lookup.unreflectSetter(field.field)
+			               .asType(MethodType.methodType(void.class, Object.class, field.type));
+		}
+		catch (IllegalAccessException e)
+		{
+			// e.g. final fields; fall back to reflection
+			return MethodHandles.insertArguments(lookup.findStatic(ObjectCopier.class,
+			                                                       "reflectiveCopy",
+			                                                       MethodType.methodType(void.class, Field.class, Object.class, Object.class)),
+			                                     0,
+			                                     field.field);
+		}
+
+		// copy.field = source.field, without boxing primitives
+		return MethodHandles.filterArguments(setter, 1, getter);
+	}
+
+	private static void reflectiveCopy(Field field, Object copy, Object source) throws IllegalAccessException
+	{
+		field.set(copy, field.get(source));
+	}
+
+	static MethodHandle findComparatorConstructor(Class<?> type)
+	{
+		if (!Modifier.isPublic(type.getModifiers()) || Modifier.isAbstract(type.getModifiers()))
+		{
+			return null;
+		}
+
+		try
+		{
+			return lookup.findConstructor(type, MethodType.methodType(void.class, Comparator.class));
+		}
+		catch (ReflectiveOperationException e)
+		{
+			return null;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Comparator<Object> comparator(Object sorted)
+	{
+		return (Comparator<Object>) (sorted instanceof SortedSet ? ((SortedSet<?>) sorted).comparator() : ((SortedMap<?, ?>) sorted).comparator());
+	}
+
+	private static void noFields(Object copy, Object source)
+	{
+	}
+}
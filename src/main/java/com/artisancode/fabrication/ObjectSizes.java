@@ -0,0 +1,74 @@
+package com.artisancode.fabrication;
+
+import java.lang.reflect.Modifier;
+
+// Rough shallow sizes for budgeting, assuming a 64-bit JVM with compressed references: a 12 byte header plus the
+// fields, padded to 8 bytes. Whatever the fields reference is counted when it is fabricated
+final class ObjectSizes
+{
+	private static final ClassValue<Long> sizes = new ClassValue<Long>()
+	{
+		@Override
+		protected Long computeValue(Class<?> type)
+		{
+			long size = 12;
+			for (FabricationField field : FabricationPlan.peek(type).fields)
+			{
+				if (!Modifier.isStatic(field.field.getModifiers()))
+				{
+					size += fieldSize(field.type);
+				}
+			}
+			return align(size);
+		}
+	};
+
+	private ObjectSizes()
+	{
+	}
+
+	static long estimate(Class<?> type)
+	{
+		return sizes.get(type);
+	}
+
+	static long estimateArray(Class<?> component, int length)
+	{
+		return align(16 + (long) length * fieldSize(component));
+	}
+
+	// Lists, sets and maps as a wrapper object and a backing array, plus an entry object per element for the hashed and
+	// linked ones; close enough for the JDK's collections without looking at their internals
+	static long estimateContainer(Containers.Spec container, int elements)
+	{
+		long size = 24 + estimateArray(Object.class, elements);
+		if (container instanceof Containers.MapSpec || (container instanceof Containers.CollectionSpec && ((Containers.CollectionSpec) container).set))
+		{
+			size += 32L * elements;
+		}
+		return size;
+	}
+
+	private static long align(long size)
+	{
+		return (size + 7) & ~7L;
+	}
+
+	static int fieldSize(Class<?> type)
+	{
+		if (type == long.class || type == double.class)
+		{
+			return 8;
+		}
+		if (type == short.class || type == char.class)
+		{
+			return 2;
+		}
+		if (type == byte.class || type == boolean.class)
+		{
+			return 1;
+		}
+		// int, float and references
+		return 4;
+	}
+}
@@ -0,0 +1,10 @@
+package com.artisancode.fabrication;
+
+// How CollectionBuilder copies its prototype element
+public enum PrototypeCopy
+{
+	// Fields are copied as they are, so every element shares the prototype's nested objects
+	SHALLOW,
+	// Nested objects are copied as well, so every element has a graph of its own
+	DEEP
+}
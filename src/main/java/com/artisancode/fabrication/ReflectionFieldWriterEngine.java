@@ -0,0 +1,26 @@
+package com.artisancode.fabrication;
+
+public class ReflectionFieldWriterEngine extends CachingFieldWriterEngine
+{
+	public static final ReflectionFieldWriterEngine INSTANCE = new ReflectionFieldWriterEngine();
+
+	@Override
+	protected FieldWriter createWriter(FabricationField field)
+	{
+		return reflectiveWriter(field);
+	}
+
+	static FieldWriter reflectiveWriter(FabricationField field)
+	{
+		return (target, configuration) -> {
+			try
+			{
+				field.field.set(target, configuration.generate(field));
+			}
+			catch (IllegalAccessException e)
+			{
+				throw new FabricationException(e);
+			}
+		};
+	}
+}
@@ -0,0 +1,34 @@
+package com.artisancode.fabrication;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+// The objects shared by one graph, or by a whole CollectionBuilder run, when instance sharing is on
+final class SharedInstances
+{
+	private static final Integer ANY_DEPTH = -1;
+
+	private final InstanceSharing sharing;
+	// Objects are only published once they are complete, so a run shared between threads never sees one half built
+	private final ConcurrentHashMap<Class<?>, ConcurrentHashMap<Integer, Object>> instances = new ConcurrentHashMap<>();
+
+	SharedInstances(InstanceSharing sharing)
+	{
+		this.sharing = sharing;
+	}
+
+	Object get(Class<?> type, int depth)
+	{
+		ConcurrentHashMap<Integer, Object> byDepth = instances.get(type);
+		return byDepth == null ? null : byDepth.get(key(depth));
+	}
+
+	void publish(Object instance, int depth)
+	{
+		instances.computeIfAbsent(instance.getClass(), x -> new ConcurrentHashMap<>()).putIfAbsent(key(depth), instance);
+	}
+
+	private Integer key(int depth)
+	{
+		return sharing == InstanceSharing.PER_TYPE ? ANY_DEPTH : depth;
+	}
+}
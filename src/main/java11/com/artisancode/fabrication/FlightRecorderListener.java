@@ -0,0 +1,176 @@
+package com.artisancode.fabrication;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.util.ArrayList;
+
+// Emits Java Flight Recorder events for fabrication, so builds can be lined up against GC pauses and test phases.
+// Events are only committed while a recording has them enabled
+public class FlightRecorderListener implements FabricationListener
+{
+	// Stands in for the events of builds that started while their event wasn't enabled
+	private static final ObjectFabricatedEvent OBJECT_DISABLED = new ObjectFabricatedEvent();
+	private static final CollectionFabricatedEvent COLLECTION_DISABLED = new CollectionFabricatedEvent();
+
+	// The events begun on this thread, innermost last. A build that throws leaves its event behind, below the events of
+	// later builds, so they still end the event they began
+	private final ThreadLocal<ArrayList<ObjectFabricatedEvent>> objects = ThreadLocal.withInitial(ArrayList::new);
+	private final ThreadLocal<ArrayList<CollectionFabricatedEvent>> collections = ThreadLocal.withInitial(ArrayList::new);
+
+	public static boolean isSupported()
+	{
+		return true;
+	}
+
+	@Override
+	public boolean tracksGraph()
+	{
+		return false;
+	}
+
+	@Override
+	public void objectStarted(Class<?> type, int depth)
+	{
+		ObjectFabricatedEvent event = new ObjectFabricatedEvent();
+		if (event.isEnabled())
+		{
+			// Begun before the build, so the event's start time and duration cover it
+			event.begin();
+		}
+		else
+		{
+			event = OBJECT_DISABLED;
+		}
+		objects.get().add(event);
+	}
+
+	@Override
+	public void objectFabricated(Class<?> type, int depth, long durationNanos)
+	{
+		ObjectFabricatedEvent event = end(objects.get());
+		if (event != null && event != OBJECT_DISABLED && event.shouldCommit())
+		{
+			event.type = type;
+			event.depth = depth;
+			event.fabricationTime = durationNanos;
+			event.commit();
+		}
+	}
+
+	@Override
+	public void collectionStarted(Class<?> type, int size)
+	{
+		CollectionFabricatedEvent event = new CollectionFabricatedEvent();
+		if (event.isEnabled())
+		{
+			event.begin();
+		}
+		else
+		{
+			event = COLLECTION_DISABLED;
+		}
+		collections.get().add(event);
+	}
+
+	@Override
+	public void collectionFabricated(Class<?> type, int size, int modifications, long durationNanos)
+	{
+		CollectionFabricatedEvent event = end(collections.get());
+		if (event != null && event != COLLECTION_DISABLED && event.shouldCommit())
+		{
+			event.type = type;
+			event.size = size;
+			event.modifications = modifications;
+			event.fabricationTime = durationNanos;
+			event.commit();
+		}
+	}
+
+	private static <E extends Event> E end(ArrayList<E> started)
+	{
+		if (started.isEmpty())
+		{
+			// Started before the listener was registered
+			return null;
+		}
+
+		E event = started.remove(started.size() - 1);
+		event.end();
+		return event;
+	}
+
+	@Override
+	public void planResolved(Class<?> type, boolean cached)
+	{
+		if (cached)
+		{
+			return;
+		}
+
+		// An instant event: nothing is timed, so it isn't begun
+		PlanBuiltEvent event = new PlanBuiltEvent();
+		if (event.isEnabled())
+		{
+			event.type = type;
+			event.fields = FabricationPlan.of(type).getFields().size();
+			event.commit();
+		}
+	}
+
+	@Name("com.artisancode.fabrication.ObjectFabricated")
+	@Label("Object Fabricated")
+	@Category("Fabrication")
+	@StackTrace(false)
+	static class ObjectFabricatedEvent extends Event
+	{
+		@Label("Type")
+		Class<?> type;
+
+		@Label("Depth")
+		@Description("0 for the object that was asked for, increasing by one for every nested object")
+		int depth;
+
+		@Label("Fabrication Time")
+		@Timespan(Timespan.NANOSECONDS)
+		long fabricationTime;
+	}
+
+	@Name("com.artisancode.fabrication.CollectionFabricated")
+	@Label("Collection Fabricated")
+	@Category("Fabrication")
+	@StackTrace(false)
+	static class CollectionFabricatedEvent extends Event
+	{
+		@Label("Element Type")
+		Class<?> type;
+
+		@Label("Size")
+		int size;
+
+		@Label("Modifications")
+		int modifications;
+
+		@Label("Fabrication Time")
+		@Timespan(Timespan.NANOSECONDS)
+		long fabricationTime;
+	}
+
+	@Name("com.artisancode.fabrication.PlanBuilt")
+	@Label("Fabrication Plan Built")
+	@Category("Fabrication")
+	@StackTrace(false)
+	static class PlanBuiltEvent extends Event
+	{
+		@Label("Type")
+		Class<?> type;
+
+		@Label("Fields")
+		int fields;
+	}
+}
@@ -186,6 +186,26 @@ public class CollectionBuilderTest
 		target.theFirst(100).with(x -> x.name = "bob");
 	}
 
+	@Test
+	public void handleNextModifications_PastTheEnd_PreviousSliceKept()
+	{
+		CollectionBuilder<FabricatorTests.TestObject> target = new CollectionBuilder<>(FabricatorTests.TestObject.class);
+		target.ofSize(5).theFirst(2).with(x -> x.name = "first");
+
+		try
+		{
+			target.theNext(4).with(x -> x.name = "bob");
+			fail("Expected the slice past the end to be rejected");
+		}
+		catch (FabricationException expected)
+		{
+		}
+
+		assertEquals(0, target.lastModificationStartIndex);
+		assertEquals(1, target.lastModificationEndIndex);
+		assertEquals(1, target.modifications.size());
+	}
+
 	@Test
 	public void handleLastModifications_ValidNumberOfModifications_ModificationsAdded()
 	{
@@ -331,4 +351,281 @@ public class CollectionBuilderTest
 		// Expect to throw as array is 0-based
 		target.theNth(5).with(x -> x.name = "bob");
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void fabricate_Parallelism_SameResultAsSequential()
+	{
+		java.util.List<FabricatorTests.TestObject> sequential = configureMixedModifications(new CollectionBuilder<>(FabricatorTests.TestObject.class)).fabricate();
+		java.util.List<FabricatorTests.TestObject> parallel = configureMixedModifications(new CollectionBuilder<>(FabricatorTests.TestObject.class)).parallelism(4).fabricate();
+		java.util.List<FabricatorTests.TestObject> commonPool = configureMixedModifications(new CollectionBuilder<>(FabricatorTests.TestObject.class)).fabricateParallel();
+
+		assertEquals(1000, sequential.size());
+		assertEquals(describe(sequential), describe(parallel));
+		assertEquals(describe(sequential), describe(commonPool));
+	}
+
+	@Test(expected = FabricationException.class)
+	public void parallelism_Zero_FabricationExceptionThrown()
+	{
+		new CollectionBuilder<>(FabricatorTests.TestObject.class).parallelism(0);
+	}
+
+	private CollectionBuilder<FabricatorTests.TestObject> configureMixedModifications(CollectionBuilder<FabricatorTests.TestObject> target)
+	{
+		return target.ofSize(1000)
+		             .all().with(x -> x.name = "bob")
+		             .theSlice(10, 500).with(x -> x.age = 30)
+		             .predicated(i -> i % 7 == 0).with(x -> x.title = "Dr")
+		             .random(250, 1234).with(x -> x.hungry = true);
+	}
+
+	private java.util.List<String> describe(java.util.List<FabricatorTests.TestObject> objects)
+	{
+		java.util.List<String> result = new java.util.ArrayList<>();
+		for (FabricatorTests.TestObject x : objects)
+		{
+			result.add(x.name + "|" + x.title + "|" + x.age + "|" + x.hungry);
+		}
+		return result;
+	}
+
+	@Test
+	public void stream_ModificationsConfigured_SameResultAsFabricate()
+	{
+		java.util.List<FabricatorTests.TestObject> expected = configureMixedModifications(new CollectionBuilder<>(FabricatorTests.TestObject.class)).fabricate();
+		java.util.List<FabricatorTests.TestObject> actual = configureMixedModifications(new CollectionBuilder<>(FabricatorTests.TestObject.class)).stream()
+		                                                                                                                                         .collect(java.util.stream.Collectors.toList());
+
+		assertEquals(describe(expected), describe(actual));
+	}
+
+	@Test
+	public void iterator_ModificationsConfigured_SameResultAsFabricate()
+	{
+		java.util.List<FabricatorTests.TestObject> expected = configureMixedModifications(new CollectionBuilder<>(FabricatorTests.TestObject.class)).fabricate();
+		java.util.List<FabricatorTests.TestObject> actual = new java.util.ArrayList<>();
+		configureMixedModifications(new CollectionBuilder<>(FabricatorTests.TestObject.class)).iterator().forEachRemaining(actual::add);
+
+		assertEquals(describe(expected), describe(actual));
+	}
+
+	@Test
+	public void forEach_ModificationsConfigured_SameResultAsFabricate()
+	{
+		java.util.List<FabricatorTests.TestObject> expected = configureMixedModifications(new CollectionBuilder<>(FabricatorTests.TestObject.class)).fabricate();
+		java.util.List<FabricatorTests.TestObject> actual = new java.util.ArrayList<>();
+		configureMixedModifications(new CollectionBuilder<>(FabricatorTests.TestObject.class)).forEach(actual::add);
+
+		assertEquals(describe(expected), describe(actual));
+	}
+
+	@Test(expected = java.util.NoSuchElementException.class)
+	public void iterator_Exhausted_NoSuchElementExceptionThrown()
+	{
+		java.util.Iterator<FabricatorTests.TestObject> iterator = new CollectionBuilder<>(FabricatorTests.TestObject.class).ofSize(1).iterator();
+
+		iterator.next();
+		iterator.next();
+	}
+
+	@Test
+	public void ofSize_TenMillionElements_ModificationsStoredPerRuleNotPerIndex()
+	{
+		CollectionBuilder<FabricatorTests.TestObject> target = new CollectionBuilder<>(FabricatorTests.TestObject.class);
+
+		target.ofSize(10_000_000)
+		      .all().with(x -> x.name = "bob")
+		      .theFirst(100).with(x -> x.age = 1)
+		      .theSlice(5_000_000, 6_000_000).with(x -> x.title = "Mr");
+
+		assertEquals(3, target.modifications.size());
+		assertEquals(10_000_000, target.modificationsArray.size());
+		assertEquals(2, target.modificationsArray.get(99).size());
+		assertEquals(2, target.modificationsArray.get(5_500_000).size());
+		assertEquals(1, target.modificationsArray.get(9_999_999).size());
+	}
+
+	@Test
+	public void modificationIndex_MixedModifications_SameModificationsAsPlan()
+	{
+		CollectionBuilder<FabricatorTests.TestObject> target = configureMixedModifications(new CollectionBuilder<>(FabricatorTests.TestObject.class));
+		ModificationPlan.Index<FabricatorTests.TestObject> index = target.modifications.index(target.size);
+		ObjectBuilder<FabricatorTests.TestObject> builder = new ObjectBuilder<>(FabricatorTests.TestObject.class, new FabricatorConfiguration());
+
+		java.util.List<FabricatorTests.TestObject> indexed = new java.util.ArrayList<>();
+		java.util.List<FabricatorTests.TestObject> planned = new java.util.ArrayList<>();
+		for (int i = 0; i < target.size; i++)
+		{
+			FabricatorTests.TestObject indexedObject = builder.fabricate();
+			index.apply(i, indexedObject);
+			indexed.add(indexedObject);
+
+			FabricatorTests.TestObject plannedObject = builder.fabricate();
+			target.modificationsArray.get(i).forEach(x -> x.accept(plannedObject));
+			planned.add(plannedObject);
+		}
+
+		assertEquals(describe(planned), describe(indexed));
+	}
+
+	@Test
+	public void modificationIndex_OverlappingRangesBetweenPredicates_AppliedInRuleOrder()
+	{
+		ModificationPlan<StringBuilder> plan = new ModificationPlan<>();
+		plan.add(new ModificationPlan.Range(0, 5), x -> x.append('a'));
+		plan.add(new ModificationPlan.Predicated(i -> i % 2 == 0), x -> x.append('b'));
+		plan.add(new ModificationPlan.Range(3, 20), x -> x.append('c'));
+		plan.add(new ModificationPlan.Range(-4, -1), x -> x.append('d'));
+		plan.add(new ModificationPlan.Indices(new int[]{4, 7}), x -> x.append('e'));
+		plan.add(new ModificationPlan.Range(2, 3), x -> x.append('f'));
+
+		ModificationPlan.Index<StringBuilder> index = plan.index(8);
+
+		// Segments start at 0, 2, 3, 4 and 6; the range before the collection and the end past it add none
+		assertEquals(5, index.segmentCount());
+		for (int i = 0; i < 8; i++)
+		{
+			StringBuilder indexed = new StringBuilder();
+			index.apply(i, indexed);
+			StringBuilder planned = new StringBuilder();
+			plan.modificationsAt(i).forEach(x -> x.accept(planned));
+			assertEquals(planned.toString(), indexed.toString());
+		}
+	}
+
+	@Test
+	public void handlePredicateModifications_ChainedModifiers_PredicateEvaluatedOncePerIndex()
+	{
+		java.util.concurrent.atomic.AtomicInteger evaluations = new java.util.concurrent.atomic.AtomicInteger();
+		CollectionBuilder<FabricatorTests.TestObject> target = new CollectionBuilder<>(FabricatorTests.TestObject.class);
+
+		target.ofSize(100)
+		      .predicated(i -> {
+			      evaluations.incrementAndGet();
+			      return i % 2 == 0;
+		      })
+		      .with(x -> x.name = "bob")
+		      .and(x -> x.age = 2)
+		      .and(x -> x.title = "Mr");
+
+		// One scan to find the first and last matching index
+		assertEquals(100, evaluations.get());
+		assertEquals(0, target.lastModificationStartIndex);
+		assertEquals(98, target.lastModificationEndIndex);
+
+		java.util.List<FabricatorTests.TestObject> result = target.fabricate();
+
+		// And one evaluation per index while fabricating
+		assertEquals(200, evaluations.get());
+		assertEquals("bob|Mr|2|false", describe(result).get(0));
+		assertEquals("name|title|0|false", describe(result).get(1));
+	}
+
+	@Test
+	public void refill_ExistingList_ElementsReusedAndModified()
+	{
+		CollectionBuilder<FabricatorTests.TestObject> target = configureMixedModifications(new CollectionBuilder<>(FabricatorTests.TestObject.class));
+		java.util.List<String> expected = describe(target.fabricate());
+		java.util.List<FabricatorTests.TestObject> existing = new java.util.ArrayList<>(target.fabricate());
+		FabricatorTests.TestObject first = existing.get(0);
+		existing.forEach(x -> {
+			x.name = "stale";
+			x.age = -1;
+		});
+
+		java.util.List<FabricatorTests.TestObject> result = target.refill(existing);
+
+		assertSame(existing, result);
+		assertSame(first, result.get(0));
+		assertEquals(expected, describe(result));
+	}
+
+	@Test
+	public void refill_ListOfDifferentSize_ResizedToBuilderSize()
+	{
+		CollectionBuilder<FabricatorTests.TestObject> target = new CollectionBuilder<FabricatorTests.TestObject>(FabricatorTests.TestObject.class)
+				                                                       .ofSize(4)
+				                                                       .all().with(x -> x.name = "bob");
+
+		java.util.List<FabricatorTests.TestObject> shorter = new java.util.ArrayList<>(new CollectionBuilder<FabricatorTests.TestObject>(FabricatorTests.TestObject.class).ofSize(2).fabricate());
+		java.util.List<FabricatorTests.TestObject> longer = new java.util.LinkedList<>(new CollectionBuilder<FabricatorTests.TestObject>(FabricatorTests.TestObject.class).ofSize(6).fabricate());
+
+		assertEquals(4, target.refill(shorter).size());
+		assertEquals(4, target.refill(longer).size());
+		assertEquals("bob", shorter.get(3).name);
+		assertEquals("bob", longer.get(0).name);
+	}
+
+	@Test
+	public void prototype_MixedModifications_SameResultAsFabricatingEachElement()
+	{
+		java.util.List<String> expected = describe(configureMixedModifications(new CollectionBuilder<>(FabricatorTests.TestObject.class)).fabricate());
+
+		java.util.List<FabricatorTests.TestObject> result = configureMixedModifications(new CollectionBuilder<>(FabricatorTests.TestObject.class))
+				                                                    .prototype()
+				                                                    .fabricate();
+
+		assertEquals(expected, describe(result));
+		assertNotSame(result.get(0), result.get(1));
+	}
+
+	@Test
+	public void prototype_DeepCopy_NestedObjectsNotShared()
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.recursive = true;
+
+		java.util.List<FabricatorConfigurationTests.TestClassWithObjectField> result =
+				new CollectionBuilder<FabricatorConfigurationTests.TestClassWithObjectField>(FabricatorConfigurationTests.TestClassWithObjectField.class, configuration)
+						.ofSize(3)
+						.prototype(PrototypeCopy.DEEP)
+						.theFirst(1).with(x -> x.classField.name = "first")
+						.fabricate();
+
+		assertNotSame(result.get(0).classField, result.get(1).classField);
+		assertEquals("first", result.get(0).classField.name);
+		assertEquals("name", result.get(1).classField.name);
+	}
+
+	@Test
+	public void prototype_EveryCopyReportedToListener()
+	{
+		FabricationMetrics metrics = new FabricationMetrics();
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.addListener(metrics);
+
+		new CollectionBuilder<>(FabricatorTests.TestObject.class, configuration).ofSize(3).prototype().fabricate();
+
+		assertEquals(3, metrics.getObjectCount());
+		assertEquals(1, metrics.getGraphCount());
+	}
+
+	@Test
+	public void prototype_EmptyCollection_TemplateNotFabricated()
+	{
+		FabricationMetrics metrics = new FabricationMetrics();
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.addListener(metrics);
+
+		new CollectionBuilder<>(FabricatorTests.TestObject.class, configuration).ofSize(0).prototype().fabricate();
+
+		assertEquals(0, metrics.getObjectCount());
+		assertEquals(0, metrics.getGraphCount());
+	}
+
+	@Test
+	public void prototype_ShallowCopy_NestedObjectsShared()
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.recursive = true;
+
+		java.util.List<FabricatorConfigurationTests.TestClassWithObjectField> result =
+				new CollectionBuilder<FabricatorConfigurationTests.TestClassWithObjectField>(FabricatorConfigurationTests.TestClassWithObjectField.class, configuration)
+						.ofSize(3)
+						.prototype(PrototypeCopy.SHALLOW)
+						.fabricateParallel();
+
+		assertNotNull(result.get(0).classField);
+		assertSame(result.get(0).classField, result.get(2).classField);
+	}
+}
@@ -0,0 +1,112 @@
+package com.artisancode.fabrication;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CompiledFabricatorTests
+{
+	@Test
+	public void testCompiledFabricatorIsCachedPerClass()
+	{
+		CompiledFabricator first = CompiledFabricator.of(CompilableObject.class);
+
+		assertNotNull(first);
+		assertSame(first, CompiledFabricator.of(CompilableObject.class));
+	}
+
+	@Test
+	public void testCompiledFabricatorFillsEveryField()
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration(2);
+
+		CompilableObject result = (CompilableObject) CompiledFabricator.of(CompilableObject.class).fabricate(configuration);
+
+		assertEquals(2, result.count);
+		assertEquals(2L, result.total);
+		assertEquals('C', result.grade);
+		assertEquals("name", result.name);
+		assertEquals(FabricatorConfigurationTests.TestEnum.FIRST, result.type);
+		assertNotNull(result.child);
+		assertEquals(3, result.child.count);
+	}
+
+	@Test
+	public void testCompiledFabricatorUsesCustomGeneratorsForPrimitives()
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.customGenerators.put(int.class, () -> 42);
+
+		CompilableObject result = (CompilableObject) CompiledFabricator.of(CompilableObject.class).fabricate(configuration);
+
+		assertEquals(42, result.count);
+		assertEquals(0L, result.total);
+	}
+
+	@Test
+	public void testClassWithFinalFieldIsNotCompiled()
+	{
+		assertNull(CompiledFabricator.of(FinalFieldObject.class));
+	}
+
+	@Test
+	public void testObjectBuilderFallsBackToReflectivePathWhenNotCompilable()
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.useCompiledFabricators = true;
+
+		FinalFieldObject result = new ObjectBuilder<FinalFieldObject>(FinalFieldObject.class, configuration)
+				                          .with(x -> x.name = "bob")
+				                          .fabricate();
+
+		assertEquals("bob", result.name);
+		assertEquals(0, result.count);
+	}
+
+	@Test
+	public void testObjectBuilderUsesCompiledFabricatorWhenEnabled()
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.useCompiledFabricators = true;
+
+		CompilableObject result = new ObjectBuilder<CompilableObject>(CompilableObject.class, configuration)
+				                          .with(x -> x.name = "bob")
+				                          .fabricate();
+
+		assertEquals("bob", result.name);
+		assertNotNull(result.child);
+	}
+
+	@Test
+	public void testClassWithStaticFieldsIsCompiled()
+	{
+		StaticFieldObject result = (StaticFieldObject) CompiledFabricator.of(StaticFieldObject.class).fabricate(new FabricatorConfiguration());
+
+		assertEquals("name", result.name);
+		assertEquals(7, StaticFieldObject.instances);
+		assertEquals("constant", StaticFieldObject.CONSTANT);
+	}
+
+	public static class CompilableObject
+	{
+		public int count;
+		public long total;
+		public char grade;
+		public String name;
+		public FabricatorConfigurationTests.TestEnum type;
+		public CompilableObject child;
+	}
+
+	public static class StaticFieldObject
+	{
+		public static final String CONSTANT = "constant";
+		public static int instances = 7;
+		public String name;
+	}
+
+	public static class FinalFieldObject
+	{
+		public final int count = 0;
+		public String name;
+	}
+}
@@ -0,0 +1,208 @@
+package com.artisancode.fabrication;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class ContainersTests
+{
+	@Test
+	public void testFabricate_ContainerFields_PopulatedFromGenericTypes()
+	{
+		ContainerObject result = new ObjectBuilder<>(ContainerObject.class, new FabricatorConfiguration()).fabricate();
+
+		assertEquals(Arrays.asList("names", "names[1]"), result.names);
+		assertEquals(new HashSet<>(Arrays.asList(0, 1)), result.numbers);
+		assertEquals(2, result.linked.size());
+		assertTrue(result.linked instanceof LinkedList);
+		assertArrayEquals(new int[]{0, 1}, result.primitives);
+		assertEquals(2, result.grid.length);
+		assertArrayEquals(new String[]{"grid[1]", "grid[1][1]"}, result.grid[1]);
+		assertEquals(Arrays.asList(Arrays.asList(0L, 1L), Arrays.asList(1L, 2L)), result.nested);
+		assertTrue(result.raw.isEmpty());
+	}
+
+	@Test
+	public void testFabricate_ObjectElements_FabricatedOneGenerationDown()
+	{
+		ContainerObject result = new ObjectBuilder<>(ContainerObject.class, new FabricatorConfiguration()).fabricate();
+
+		assertEquals(2, result.children.size());
+		assertEquals(1, result.children.get("children").generation);
+		assertEquals(2, result.children.get("children[1]").generation);
+		assertTrue(result.sorted instanceof TreeMap);
+		assertEquals(2, result.sorted.size());
+		assertEquals(2, result.childList.size());
+		assertNotSame(result.childList.get(0), result.childList.get(1));
+		assertEquals(1, result.childList.get(0).generation);
+	}
+
+	@Test
+	public void testFabricate_ContainerSizeConfigured_ContainersSized()
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.containerSize = 5;
+
+		ContainerObject result = new ObjectBuilder<>(ContainerObject.class, configuration).fabricate();
+
+		assertEquals(5, result.names.size());
+		assertEquals(5, result.primitives.length);
+		assertEquals(5, result.childList.size());
+
+		configuration.containerSize = 0;
+		result = new ObjectBuilder<>(ContainerObject.class, configuration).fabricate();
+
+		assertNotNull(result.names);
+		assertTrue(result.names.isEmpty());
+		assertEquals(0, result.grid.length);
+	}
+
+	@Test
+	public void testFabricate_NotRecursive_ObjectContainersLeftEmpty()
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.recursive = false;
+
+		ContainerObject result = new ObjectBuilder<>(ContainerObject.class, configuration).fabricate();
+
+		assertTrue(result.childList.isEmpty());
+		assertEquals(2, result.names.size());
+	}
+
+	@Test
+	public void testFabricate_LazyContainers_FilledWhenFirstUsed()
+	{
+		FabricationMetrics metrics = new FabricationMetrics();
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.lazyContainers = true;
+		configuration.containerSize = 3;
+		configuration.addListener(metrics);
+
+		ContainerObject result = new ObjectBuilder<>(ContainerObject.class, configuration).fabricate();
+		long objectsBeforeUse = metrics.getObjectCount();
+
+		assertEquals(3, result.childList.size());
+		assertEquals(objectsBeforeUse + 3, metrics.getObjectCount());
+		assertSame(result.childList.get(0), result.childList.get(0));
+
+		result.childList.add(new ContainerChild(9));
+		assertEquals(4, result.childList.size());
+		// Concrete container types can't be swapped for lazy ones
+		assertTrue(result.linked instanceof LinkedList);
+	}
+
+	@Test
+	public void testFabricate_SetsAndMaps_OneEntryPerElement()
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.containerSize = 5;
+
+		ContainerObject result = new ObjectBuilder<>(ContainerObject.class, configuration).fabricate();
+
+		assertEquals(5, result.numbers.size());
+		assertEquals(5, result.children.size());
+		assertEquals(5, result.sorted.size());
+		assertEquals(5, new HashSet<>(result.names).size());
+	}
+
+	@Test
+	public void testFabricate_LazyContainers_FilledWithinGraph()
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.lazyContainers = true;
+		configuration.instanceSharing = InstanceSharing.PER_TYPE;
+		configuration.containerSize = 3;
+
+		SharingContainer result = new ObjectBuilder<>(SharingContainer.class, configuration).fabricate();
+
+		// Filled after fabricate returned, but still sharing with the rest of the graph
+		assertSame(result.child, result.children.get(0));
+		assertSame(result.child, result.children.get(2));
+	}
+
+	@Test
+	public void testFabricate_CustomGeneratorForContainer_CustomGeneratorUsed()
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.customGenerators.put(List.class, () -> new ArrayList<>(Arrays.asList("custom")));
+
+		ContainerObject result = new ObjectBuilder<>(ContainerObject.class, configuration).fabricate();
+
+		assertEquals(Arrays.asList("custom"), result.names);
+	}
+
+	@Test
+	public void testFabricate_SortedContainersOfNonComparable_LeftEmpty()
+	{
+		SortedContainer result = new ObjectBuilder<>(SortedContainer.class, new FabricatorConfiguration()).fabricate();
+
+		assertTrue(result.children.isEmpty());
+		assertTrue(result.childKeys.isEmpty());
+		assertEquals(2, result.names.size());
+	}
+
+	@Test
+	public void testDeepCopy_ContainerFields_Copied()
+	{
+		ContainerObject source = new ObjectBuilder<>(ContainerObject.class, new FabricatorConfiguration()).fabricate();
+
+		ContainerObject result = ObjectCopier.copy(source, PrototypeCopy.DEEP);
+
+		assertNotSame(source.childList, result.childList);
+		assertNotSame(source.childList.get(0), result.childList.get(0));
+		assertNotSame(source.primitives, result.primitives);
+		assertNotSame(source.grid[0], result.grid[0]);
+		assertEquals(source.names, result.names);
+		assertTrue(result.linked instanceof LinkedList);
+	}
+
+	public static class ContainerObject
+	{
+		public List<String> names;
+		public Set<Integer> numbers;
+		public LinkedList<String> linked;
+		public int[] primitives;
+		public String[][] grid;
+		public List<List<Long>> nested;
+		@SuppressWarnings("rawtypes")
+		public List raw;
+		public Map<String, ContainerChild> children;
+		public TreeMap<String, Integer> sorted;
+		public List<ContainerChild> childList;
+	}
+
+	public static class SortedContainer
+	{
+		public TreeSet<ContainerChild> children;
+		public SortedMap<ContainerChild, String> childKeys;
+		public NavigableSet<String> names;
+	}
+
+	public static class SharingContainer
+	{
+		public ContainerChild child;
+		public List<ContainerChild> children;
+	}
+
+	public static class ContainerChild
+	{
+		public int generation;
+
+		public ContainerChild(int generation)
+		{
+			this.generation = generation;
+		}
+	}
+}
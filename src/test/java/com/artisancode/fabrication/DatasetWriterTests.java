@@ -0,0 +1,118 @@
+package com.artisancode.fabrication;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DatasetWriterTests
+{
+	@Test
+	public void testCsv_ModifiedCollection_HeaderAndRowsInPlanOrder() throws Exception
+	{
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		new CollectionBuilder<FabricatorTests.TestObject>(FabricatorTests.TestObject.class)
+				.ofSize(3)
+				.theFirst(1).with(x -> x.name = "Smith, \"Bob\"")
+				.theLast(1).with(x -> x.title = null)
+				.writeTo(Channels.newChannel(output), new CsvDatasetWriter());
+
+		assertEquals("name,title,age,hungry\r\n"
+				             + "\"Smith, \"\"Bob\"\"\",title,0,false\r\n"
+				             + "name,title,0,false\r\n"
+				             + "name,,0,false\r\n",
+		             new String(output.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testCsv_NestedObjects_FlattenedIntoDottedColumns() throws Exception
+	{
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		new CollectionBuilder<FabricatorConfigurationTests.TestClassWithObjectField>(FabricatorConfigurationTests.TestClassWithObjectField.class)
+				.ofSize(2)
+				.theFirst(1).with(x -> x.classField = null)
+				.writeTo(Channels.newChannel(output), new CsvDatasetWriter());
+
+		assertEquals("generation,classField.age,classField.name\r\n"
+				             + "0,,\r\n"
+				             + "0,1,name\r\n",
+		             new String(output.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testCsv_NotRecursive_NestedObjectsLeftOut() throws Exception
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.recursive = false;
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		new CollectionBuilder<FabricatorConfigurationTests.TestClassWithObjectField>(FabricatorConfigurationTests.TestClassWithObjectField.class, configuration)
+				.ofSize(1)
+				.writeTo(Channels.newChannel(output), new CsvDatasetWriter());
+
+		assertEquals("generation\r\n0\r\n", new String(output.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testCsv_Containers_WrittenAsJson() throws Exception
+	{
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		new CollectionBuilder<ContainerRecord>(ContainerRecord.class)
+				.ofSize(1)
+				.writeTo(Channels.newChannel(output), new CsvDatasetWriter());
+
+		assertEquals("names,values\r\n\"[\"\"names\"\",\"\"names[1]\"\"]\",\"[0,1]\"\r\n",
+		             new String(output.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testJsonLines_NestedObjects_OneObjectPerLine() throws Exception
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.recursive = true;
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		new CollectionBuilder<FabricatorConfigurationTests.TestClassWithObjectField>(FabricatorConfigurationTests.TestClassWithObjectField.class, configuration)
+				.ofSize(2)
+				.theFirst(1).with(x -> x.classField.name = "line\nbreak")
+				.writeTo(Channels.newChannel(output), new JsonLinesDatasetWriter());
+
+		assertEquals("{\"generation\":0,\"classField\":{\"age\":1,\"name\":\"line\\nbreak\"}}\n"
+				             + "{\"generation\":0,\"classField\":{\"age\":1,\"name\":\"name\"}}\n",
+		             new String(output.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testSmallBuffer_LargeDataset_EveryRecordWritten() throws Exception
+	{
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		new CollectionBuilder<FabricatorTests.TestObject>(FabricatorTests.TestObject.class)
+				.ofSize(1000)
+				.all().with(x -> x.name = "\u00e9l\u00e8ve")
+				.writeTo(Channels.newChannel(output), new JsonLinesDatasetWriter(16));
+
+		String[] lines = new String(output.toByteArray(), StandardCharsets.UTF_8).split("\n");
+		assertEquals(1000, lines.length);
+		assertEquals("{\"name\":\"\u00e9l\u00e8ve\",\"title\":\"title\",\"age\":0,\"hungry\":false}", lines[999]);
+	}
+
+	@Test(expected = FabricationException.class)
+	public void testTinyBuffer_ExceptionThrown()
+	{
+		new CsvDatasetWriter(4);
+	}
+
+	public static class ContainerRecord
+	{
+		public List<String> names;
+		public int[] values;
+	}
+}
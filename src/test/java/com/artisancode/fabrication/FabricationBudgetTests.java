@@ -0,0 +1,209 @@
+package com.artisancode.fabrication;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FabricationBudgetTests
+{
+	@Test
+	public void testNoBudget_WholeGraphReported()
+	{
+		FabricationMetrics metrics = new FabricationMetrics();
+
+		new ObjectBuilder<>(Root.class, configure(0, 0, BudgetFallback.NULL, metrics)).fabricate();
+
+		assertEquals(1, metrics.getGraphCount());
+		// 1 root, 2 branches, 4 branch leaves and 1 root leaf
+		assertEquals(8, metrics.getLargestGraphObjects());
+		assertEquals(24 + 2 * 24 + 5 * 16, metrics.getLargestGraphEstimatedBytes());
+		assertEquals(0, metrics.getExhaustedGraphs());
+	}
+
+	@Test
+	public void testMaxObjects_RestOfGraphNull()
+	{
+		FabricationMetrics metrics = new FabricationMetrics();
+
+		Root result = new ObjectBuilder<>(Root.class, configure(3, 0, BudgetFallback.NULL, metrics)).fabricate();
+
+		assertNotNull(result.left);
+		assertNotNull(result.left.leaf);
+		assertNull(result.left.otherLeaf);
+		assertNull(result.right);
+		assertNull(result.leaf);
+		assertEquals(3, metrics.getLargestGraphObjects());
+		assertEquals(1, metrics.getExhaustedGraphs());
+	}
+
+	@Test
+	public void testMaxObjects_SharedFallback_ReferencesExistingObjects()
+	{
+		Root result = new ObjectBuilder<>(Root.class, configure(3, 0, BudgetFallback.SHARED, null)).fabricate();
+
+		assertSame(result.left.leaf, result.left.otherLeaf);
+		assertSame(result.left, result.right);
+		assertSame(result.left.leaf, result.leaf);
+	}
+
+	@Test
+	public void testSharedFallback_NothingCompleted_Null()
+	{
+		Node result = new ObjectBuilder<>(Node.class, configure(1, 0, BudgetFallback.SHARED, null)).fabricate();
+
+		assertNull(result.next);
+	}
+
+	@Test
+	public void testMaxEstimatedBytes_StopsBeforeGoingOver()
+	{
+		FabricationMetrics metrics = new FabricationMetrics();
+
+		// Enough for the root and one branch, not for a leaf as well
+		Root result = new ObjectBuilder<>(Root.class, configure(0, 60, BudgetFallback.NULL, metrics)).fabricate();
+
+		assertNotNull(result.left);
+		assertNull(result.left.leaf);
+		assertEquals(48, metrics.getLargestGraphEstimatedBytes());
+		assertEquals(1, metrics.getExhaustedGraphs());
+	}
+
+	@Test
+	public void testCollection_BudgetPerElement()
+	{
+		FabricationMetrics metrics = new FabricationMetrics();
+
+		List<Root> result = new CollectionBuilder<Root>(Root.class, configure(1, 0, BudgetFallback.NULL, metrics))
+				                    .ofSize(3)
+				                    .fabricate();
+
+		for (Root element : result)
+		{
+			assertNotNull(element);
+			assertNull(element.left);
+		}
+		assertEquals(3, metrics.getGraphCount());
+		assertEquals(3, metrics.getExhaustedGraphs());
+	}
+
+	@Test
+	public void testFabricateInto_BudgetAppliesToRefilledGraph()
+	{
+		FabricationMetrics metrics = new FabricationMetrics();
+		ObjectBuilder<Root> builder = new ObjectBuilder<>(Root.class, configure(3, 0, BudgetFallback.NULL, metrics));
+		Root existing = new ObjectBuilder<>(Root.class, new FabricatorConfiguration()).fabricate();
+
+		Root result = builder.fabricateInto(existing);
+
+		// Refilled objects count like new ones, so only the root, its left branch and that branch's leaf are kept
+		assertNotNull(result.left);
+		assertNotNull(result.left.leaf);
+		assertNull(result.left.otherLeaf);
+		assertNull(result.right);
+		assertNull(result.leaf);
+		assertEquals(3, metrics.getLargestGraphObjects());
+		assertEquals(1, metrics.getExhaustedGraphs());
+	}
+
+	@Test
+	public void testCollectionRefill_BudgetPerElement()
+	{
+		FabricationMetrics metrics = new FabricationMetrics();
+		List<Root> existing = new java.util.ArrayList<>();
+		existing.add(new Root());
+		existing.add(new Root());
+
+		List<Root> result = new CollectionBuilder<Root>(Root.class, configure(2, 0, BudgetFallback.NULL, metrics))
+				                    .ofSize(2)
+				                    .refill(existing);
+
+		for (Root element : result)
+		{
+			assertNotNull(element.left);
+			assertNull(element.left.leaf);
+			assertNull(element.right);
+		}
+		assertEquals(2, metrics.getGraphCount());
+		assertEquals(2, metrics.getLargestGraphObjects());
+	}
+
+	@Test
+	public void testContainers_ChargedLikeTheExplanation()
+	{
+		FabricationMetrics metrics = new FabricationMetrics();
+		FabricatorConfiguration configuration = configure(0, 0, BudgetFallback.NULL, metrics);
+
+		new ObjectBuilder<>(ContainerRoot.class, configuration).fabricate();
+
+		// The root, the int array, two leaves and the list holding them
+		assertEquals(24 + 24 + 2 * 16 + 48, metrics.getLargestGraphEstimatedBytes());
+		assertEquals(FabricationExplanation.of(ContainerRoot.class, configuration).getEstimatedBytesPerElement(),
+		             metrics.getLargestGraphEstimatedBytes());
+	}
+
+	@Test
+	public void testMaxEstimatedBytes_ArrayLeavesNoRoomForLeaves()
+	{
+		// Enough for the root and a leaf, but not once the array is counted too
+		ContainerRoot result = new ObjectBuilder<>(ContainerRoot.class, configure(0, 60, BudgetFallback.NULL, null)).fabricate();
+
+		assertEquals(2, result.values.length);
+		assertTrue(result.leaves.isEmpty());
+	}
+
+	@Test
+	public void testEstimate_HeaderAndFieldsPadded()
+	{
+		assertEquals(16, ObjectSizes.estimate(Leaf.class));
+		assertEquals(24, ObjectSizes.estimate(Branch.class));
+		assertEquals(32, ObjectSizes.estimate(Primitives.class));
+	}
+
+	private FabricatorConfiguration configure(long maxObjects, long maxEstimatedBytes, BudgetFallback fallback, FabricationListener listener)
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.maxObjects = maxObjects;
+		configuration.maxEstimatedBytes = maxEstimatedBytes;
+		configuration.budgetFallback = fallback;
+		configuration.addListener(listener);
+		return configuration;
+	}
+
+	public static class Root
+	{
+		public Branch left;
+		public Branch right;
+		public Leaf leaf;
+	}
+
+	public static class Branch
+	{
+		public Leaf leaf;
+		public Leaf otherLeaf;
+	}
+
+	public static class Leaf
+	{
+		public String name;
+	}
+
+	public static class ContainerRoot
+	{
+		public int[] values;
+		public List<Leaf> leaves;
+	}
+
+	public static class Node
+	{
+		public Node next;
+	}
+
+	public static class Primitives
+	{
+		public long id;
+		public int count;
+		public boolean active;
+	}
+}
@@ -0,0 +1,184 @@
+package com.artisancode.fabrication;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FabricationExplanationTests
+{
+	@Test
+	public void testExplain_MatchesFabricatedGraph()
+	{
+		FabricationMetrics metrics = new FabricationMetrics();
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.addListener(metrics);
+
+		FabricationExplanation result = new Fabricator<Root>().explain(Root.class, configuration);
+		new ObjectBuilder<>(Root.class, configuration).fabricate();
+
+		assertEquals(metrics.getLargestGraphObjects(), result.getObjectsPerElement());
+		assertEquals(metrics.getLargestGraphEstimatedBytes(), result.getEstimatedBytesPerElement());
+		assertArrayEquals(new long[]{1, 3, 4}, result.getObjectsPerDepth());
+		assertEquals(3.0, result.getFanOut(0), 0);
+		assertEquals(4 / 3.0, result.getFanOut(1), 0.001);
+	}
+
+	@Test
+	public void testExplain_FieldOutcomesCounted()
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.customGenerators.put(Leaf.class, Leaf::new);
+
+		FabricationExplanation result = FabricationExplanation.of(Root.class, configuration);
+
+		assertEquals(3, result.getObjectsPerElement());
+		assertEquals(2, outcome(result, Root.class, "left").getCount() + outcome(result, Root.class, "right").getCount());
+		assertEquals(FieldOutcome.FABRICATED, outcome(result, Root.class, "left").getOutcome());
+		assertEquals(FieldOutcome.CUSTOM_GENERATOR, outcome(result, Root.class, "leaf").getOutcome());
+		assertEquals(2, outcome(result, Branch.class, "leaf").getCount());
+	}
+
+	@Test
+	public void testExplain_RecursionOff_NestedFieldsNull()
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.recursive = false;
+
+		FabricationExplanation result = FabricationExplanation.of(Root.class, configuration);
+
+		assertEquals(1, result.getObjectsPerElement());
+		assertEquals(FieldOutcome.NULL, outcome(result, Root.class, "left").getOutcome());
+	}
+
+	@Test
+	public void testExplain_RecurseLimit_SelfReferenceEndsInNull()
+	{
+		FabricationExplanation result = FabricationExplanation.of(Node.class, new FabricatorConfiguration());
+
+		// The root and recurseLimit (5) levels below it, each with a name
+		assertEquals(6, result.getObjectsPerElement());
+		assertEquals(5, countOf(result, Node.class, "next", FieldOutcome.FABRICATED));
+		assertEquals(1, countOf(result, Node.class, "next", FieldOutcome.NULL));
+		assertEquals(6, countOf(result, Node.class, "name", FieldOutcome.FIELD_NAME));
+	}
+
+	@Test
+	public void testExplain_InstanceSharing_SharedFieldsNotCounted()
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.instanceSharing = InstanceSharing.PER_TYPE;
+
+		FabricationExplanation result = FabricationExplanation.of(Root.class, configuration);
+
+		assertEquals(3, result.getObjectsPerElement());
+		assertEquals(FieldOutcome.SHARED, outcome(result, Root.class, "right").getOutcome());
+	}
+
+	@Test
+	public void testExplain_Containers_ElementsCounted()
+	{
+		FabricationMetrics metrics = new FabricationMetrics();
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.containerSize = 3;
+		configuration.addListener(metrics);
+
+		FabricationExplanation result = FabricationExplanation.of(Holder.class, configuration);
+		new ObjectBuilder<>(Holder.class, configuration).fabricate();
+
+		// The holder, 3 list leaves and 3 array leaves
+		assertEquals(7, result.getObjectsPerElement());
+		assertEquals(metrics.getLargestGraphObjects(), result.getObjectsPerElement());
+		assertEquals(FieldOutcome.CONTAINER, outcome(result, Holder.class, "leaves").getOutcome());
+	}
+
+	@Test
+	public void testExplain_LazyContainers_NothingCounted()
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.lazyContainers = true;
+
+		FabricationExplanation result = FabricationExplanation.of(Holder.class, configuration);
+
+		assertEquals(FieldOutcome.LAZY_CONTAINER, outcome(result, Holder.class, "leaves").getOutcome());
+		assertEquals(3, result.getObjectsPerElement());
+	}
+
+	@Test
+	public void testCollectionBuilder_ScaledBySize()
+	{
+		FabricationExplanation result = new CollectionBuilder<Root>(Root.class).ofSize(1000).explain();
+
+		assertEquals(1000, result.getElements());
+		assertEquals(8000, result.getObjects());
+		assertEquals(1000 * result.getEstimatedBytesPerElement(), result.getEstimatedBytes());
+	}
+
+	@Test
+	public void testExceeds_ComparedWithBudget()
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		FabricationExplanation result = FabricationExplanation.of(Root.class, configuration);
+
+		configuration.maxObjects = 7;
+		assertTrue(result.exceeds(configuration));
+		configuration.maxObjects = 8;
+		assertFalse(result.exceeds(configuration));
+	}
+
+	private FabricationExplanation.FieldExplanation outcome(FabricationExplanation explanation, Class<?> owner, String name)
+	{
+		for (FabricationExplanation.FieldExplanation field : explanation.getFields())
+		{
+			if (field.getOwner() == owner && field.getName().equals(name))
+			{
+				return field;
+			}
+		}
+		throw new AssertionError(owner.getSimpleName() + "." + name + " not explained");
+	}
+
+	private long countOf(FabricationExplanation explanation, Class<?> owner, String name, FieldOutcome outcome)
+	{
+		long result = 0;
+		for (FabricationExplanation.FieldExplanation field : explanation.getFields())
+		{
+			if (field.getOwner() == owner && field.getName().equals(name) && field.getOutcome() == outcome)
+			{
+				result += field.getCount();
+			}
+		}
+		return result;
+	}
+
+	public static class Root
+	{
+		public Branch left;
+		public Branch right;
+		public Leaf leaf;
+	}
+
+	public static class Branch
+	{
+		public Leaf leaf;
+		public Leaf otherLeaf;
+	}
+
+	public static class Leaf
+	{
+		public String name;
+	}
+
+	public static class Node
+	{
+		public String name;
+		public Node next;
+	}
+
+	public static class Holder
+	{
+		public List<Leaf> leaves;
+		public Leaf[] leafArray;
+	}
+}
@@ -0,0 +1,102 @@
+package com.artisancode.fabrication;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FabricationMetricsTests
+{
+	@Test
+	public void testObjectAndDepthCountsRecorded()
+	{
+		FabricationMetrics metrics = new FabricationMetrics();
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.addListener(metrics);
+
+		new ObjectBuilder<>(FabricatorConfigurationTests.TestClassRecursiveLimit.class, configuration).fabricate();
+
+		// The root object plus one nested object per level down to the recurse limit
+		assertEquals(6, metrics.getObjectCount());
+		assertEquals(5, metrics.getRecursiveBuilds());
+		assertEquals(Long.valueOf(1), metrics.getObjectsPerDepth().get(0));
+		assertEquals(Long.valueOf(1), metrics.getObjectsPerDepth().get(5));
+		assertEquals(Long.valueOf(6), metrics.getObjectsPerClass().get(FabricatorConfigurationTests.TestClassRecursiveLimit.class));
+
+		// One int generation per object
+		assertEquals(6, metrics.getGeneratorHits());
+		assertEquals(0, metrics.getCustomGeneratorHits());
+
+		long histogramTotal = 0;
+		for (long bucket : metrics.getDurationHistogram())
+		{
+			histogramTotal += bucket;
+		}
+		assertEquals(6, histogramTotal);
+	}
+
+	@Test
+	public void testCustomGeneratorHitsRecorded()
+	{
+		FabricationMetrics metrics = new FabricationMetrics();
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.customGenerators.put(int.class, () -> 5);
+		configuration.addListener(metrics);
+
+		new ObjectBuilder<>(FabricatorTests.TestObject.class, configuration).fabricate();
+
+		assertEquals(1, metrics.getCustomGeneratorHits());
+		assertEquals(4, metrics.getGeneratorHits());
+	}
+
+	@Test
+	public void testCollectionAndPlanCacheRecorded()
+	{
+		FabricationMetrics metrics = new FabricationMetrics();
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.addListener(metrics);
+
+		List<FabricatorTests.TestObject> result = new CollectionBuilder<FabricatorTests.TestObject>(FabricatorTests.TestObject.class, configuration)
+				                                          .ofSize(10)
+				                                          .all().with(x -> x.name = "bob")
+				                                          .fabricate();
+
+		assertEquals(10, result.size());
+		assertEquals(1, metrics.getCollectionCount());
+		assertEquals(10, metrics.getCollectionElements());
+		assertEquals(10, metrics.getPlanHits() + metrics.getPlanMisses());
+		assertTrue(metrics.getPlanHits() >= 9);
+		assertTrue(metrics.getPlanCacheHitRate() >= 0.9);
+	}
+
+	@Test
+	public void testResetClearsCounters()
+	{
+		FabricationMetrics metrics = new FabricationMetrics();
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.addListener(metrics);
+		new ObjectBuilder<>(FabricatorTests.TestObject.class, configuration).fabricate();
+
+		metrics.reset();
+
+		assertEquals(0, metrics.getObjectCount());
+		assertEquals(0, metrics.getGeneratorHits());
+		assertEquals(0, metrics.getPlanHits() + metrics.getPlanMisses());
+	}
+
+	@Test
+	public void testCombinedListenersBothNotified()
+	{
+		FabricationMetrics first = new FabricationMetrics();
+		FabricationMetrics second = new FabricationMetrics();
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.addListener(first);
+		configuration.addListener(second);
+
+		new ObjectBuilder<>(FabricatorTests.TestObject.class, configuration).fabricate();
+
+		assertEquals(1, first.getObjectCount());
+		assertEquals(1, second.getObjectCount());
+	}
+}
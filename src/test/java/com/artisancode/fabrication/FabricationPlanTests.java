@@ -0,0 +1,52 @@
+package com.artisancode.fabrication;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class FabricationPlanTests
+{
+	@Test
+	public void testPlanIsCachedPerClass()
+	{
+		FabricationPlan first = FabricationPlan.of(FabricatorTests.TestObject.class);
+		FabricationPlan second = FabricationPlan.of(FabricatorTests.TestObject.class);
+
+		assertSame(first, second);
+		assertEquals(FabricatorTests.TestObject.class, first.getTarget());
+	}
+
+	@Test
+	public void testPlanIncludesInheritedFieldsAndExcludesOuterReference()
+	{
+		List<String> fieldNames = FabricationPlan.of(FabricatorTests.InheritedTestObject.class)
+				                          .getFields()
+				                          .stream()
+				                          .map(FabricationField::getName)
+				                          .collect(Collectors.toList());
+
+		assertTrue(fieldNames.contains("inheritedFlag"));
+		assertTrue(fieldNames.contains("name"));
+		assertTrue(fieldNames.contains("title"));
+		assertTrue(fieldNames.contains("age"));
+		assertTrue(fieldNames.contains("hungry"));
+		assertFalse(fieldNames.contains("this$0"));
+	}
+
+	@Test
+	public void testPlanResolvesFieldTypes()
+	{
+		FabricationField ageField = FabricationPlan.of(FabricatorTests.TestObject.class)
+				                            .getFields()
+				                            .stream()
+				                            .filter(x -> x.getName().equals("age"))
+				                            .findFirst()
+				                            .get();
+
+		assertEquals(int.class, ageField.getType());
+		assertTrue(ageField.getField().isAccessible());
+	}
+}
@@ -6,7 +6,12 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.BiConsumer;
 
 import static org.junit.Assert.*;
@@ -186,6 +191,290 @@ public class FabricatorConfigurationTests
 		assertNull(actualResult);
 	}
 
+	@Test
+	public void testNextGenerationIsSharedPerDepth()
+	{
+		FabricatorConfiguration target = new FabricatorConfiguration();
+
+		FabricatorConfiguration first = target.cloneForNextGeneration();
+		FabricatorConfiguration second = target.cloneForNextGeneration();
+
+		assertSame(first, second);
+		assertSame(first.cloneForNextGeneration(), second.cloneForNextGeneration());
+		assertEquals(1, first.generationSeed);
+		assertEquals(4, first.recurseLimit);
+	}
+
+	@Test
+	public void testNextGenerationSharesCustomGenerators()
+	{
+		FabricatorConfiguration target = new FabricatorConfiguration();
+		FabricatorConfiguration next = target.cloneForNextGeneration();
+
+		target.customGenerators.put(int.class, () -> 42);
+
+		assertEquals(42, next.generate(int.class, null));
+	}
+
+	@Test
+	public void testNextGenerationRebuiltWhenSettingsChange()
+	{
+		FabricatorConfiguration target = new FabricatorConfiguration();
+		FabricatorConfiguration before = target.cloneForNextGeneration();
+
+		target.recursive = false;
+		FabricatorConfiguration after = target.cloneForNextGeneration();
+
+		assertNotSame(before, after);
+		assertFalse(after.recursive);
+	}
+
+	@Test
+	public void testNextGeneration_SharesParentSettings()
+	{
+		FabricatorConfiguration target = new FabricatorConfiguration();
+		FabricatorConfiguration next = target.cloneForNextGeneration();
+
+		assertSame(target.settings(), next.settings());
+		assertSame(next.settings(), next.cloneForNextGeneration().forElement(2).settings());
+	}
+
+	@Test
+	public void testSettings_EveryPublicSettingCaptured() throws Exception
+	{
+		// A setting the shared settings don't capture would never reach nested objects, or leave stale generations cached
+		for (java.lang.reflect.Field field : FabricatorConfiguration.class.getFields())
+		{
+			if (!java.lang.reflect.Modifier.isStatic(field.getModifiers())
+					    && !field.getName().equals("generationSeed") && !field.getName().equals("recurseLimit"))
+			{
+				assertEquals(field.getName(), field.getType(), FabricationSettings.class.getDeclaredField(field.getName()).getType());
+			}
+		}
+	}
+
+	@Test
+	public void testResolvedGeneratorRefreshedWhenCustomGeneratorsChange()
+	{
+		FabricatorConfiguration target = new FabricatorConfiguration();
+
+		assertEquals(0, target.generate(int.class, null));
+
+		target.customGenerators.put(int.class, () -> 42);
+		assertEquals(42, target.generate(int.class, null));
+
+		target.customGenerators.remove(int.class);
+		assertEquals(0, target.generate(int.class, null));
+	}
+
+	@Test
+	public void testResolvedGeneratorIsCachedPerType()
+	{
+		FabricatorConfiguration target = new FabricatorConfiguration();
+
+		assertSame(target.resolve(TestEnum.class), target.resolve(TestEnum.class));
+		assertEquals(TestEnum.FIRST, target.resolve(TestEnum.class).getEnumConstant());
+		assertFalse(target.resolve(TestInterface.class).isFabricatable());
+	}
+
+	@Test
+	public void testPlainCustomGeneratorMapStillUsed()
+	{
+		FabricatorConfiguration target = new FabricatorConfiguration();
+		target.customGenerators = new java.util.HashMap<>();
+		target.customGenerators.put(int.class, () -> 7);
+
+		assertEquals(7, target.generate(int.class, null));
+	}
+
+	@Test
+	public void testPlainCustomGeneratorMap_ResolutionCachedUntilChanged()
+	{
+		FabricatorConfiguration target = new FabricatorConfiguration();
+		target.customGenerators = new java.util.HashMap<>();
+		target.customGenerators.put(int.class, () -> 7);
+
+		assertSame(target.resolve(int.class), target.resolve(int.class));
+
+		target.customGenerators.put(int.class, () -> 8);
+		assertEquals(8, target.generate(int.class, null));
+
+		target.customGenerators.remove(int.class);
+		assertEquals(0, target.generate(int.class, null));
+	}
+
+	@Test
+	public void testGeneratorMapViews_ReadingIsNotAChange()
+	{
+		GeneratorMap target = new GeneratorMap();
+		target.put(int.class, () -> 42);
+		int version = target.version();
+
+		target.toString();
+		target.hashCode();
+		new java.util.HashMap<>(target);
+		for (Class<?> type : target.keySet())
+		{
+			assertEquals(int.class, type);
+		}
+		assertTrue(target.values().iterator().hasNext());
+
+		assertEquals(version, target.version());
+	}
+
+	@Test
+	public void testGeneratorMapViews_ChangesCounted()
+	{
+		FabricatorConfiguration target = new FabricatorConfiguration();
+		target.customGenerators.put(int.class, () -> 42);
+		assertEquals(42, target.generate(int.class, null));
+
+		target.customGenerators.entrySet().iterator().next().setValue(() -> 7);
+		assertEquals(7, target.generate(int.class, null));
+
+		java.util.Iterator<Class<?>> keys = target.customGenerators.keySet().iterator();
+		keys.next();
+		keys.remove();
+		assertEquals(0, target.generate(int.class, null));
+	}
+
+	@Test
+	public void testFreeze_LaterChangesNotSeen()
+	{
+		FabricatorConfiguration target = new FabricatorConfiguration();
+		target.customGenerators.put(int.class, () -> 42);
+		target.containerSize = 4;
+
+		FabricatorConfiguration frozen = target.freeze();
+		target.customGenerators.put(int.class, () -> 7);
+		target.containerSize = 1;
+
+		assertTrue(frozen.isFrozen());
+		assertFalse(target.isFrozen());
+		assertEquals(42, frozen.generate(int.class, null));
+		assertEquals(4, frozen.containerSize);
+		assertSame(frozen, frozen.freeze());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testFreeze_GeneratorsCantBeChanged()
+	{
+		new FabricatorConfiguration().freeze().customGenerators.put(int.class, () -> 42);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testFreeze_GeneratorViewsCantBeChanged()
+	{
+		FabricatorConfiguration target = new FabricatorConfiguration();
+		target.customGenerators.put(int.class, () -> 42);
+
+		target.freeze().customGenerators.entrySet().iterator().next().setValue(() -> 7);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testFreeze_ListenersCantBeAdded()
+	{
+		new FabricatorConfiguration().freeze().addListener(new FabricationMetrics());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testFreeze_ChangedSettingRejected()
+	{
+		FabricatorConfiguration frozen = new FabricatorConfiguration().freeze();
+		frozen.containerSize = 7;
+
+		new ObjectBuilder<>(FrozenTarget.class, frozen);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testFreeze_ReplacedGeneratorsRejected()
+	{
+		FabricatorConfiguration frozen = new FabricatorConfiguration().freeze();
+		frozen.customGenerators = new java.util.HashMap<>();
+
+		frozen.generate(int.class, null);
+	}
+
+	@Test
+	public void testFreeze_ChangeNotSeenByExistingBuilder()
+	{
+		FabricatorConfiguration frozen = new FabricatorConfiguration().withGenerator(int.class, () -> 42);
+		ObjectBuilder<FrozenTarget> builder = new ObjectBuilder<>(FrozenTarget.class, frozen);
+
+		frozen.customGenerators = new java.util.HashMap<>();
+		frozen.generationSeed = 9;
+
+		FrozenTarget result = builder.fabricate();
+		assertEquals(42, result.count);
+		assertEquals(0, result.id);
+	}
+
+	@Test
+	public void testFreeze_NextGenerationFrozen()
+	{
+		FabricatorConfiguration next = new FabricatorConfiguration().freeze().cloneForNextGeneration();
+
+		assertTrue(next.isFrozen());
+		assertEquals(1, next.generationSeed);
+	}
+
+	@Test
+	public void testWithGenerator_CopyOnWrite()
+	{
+		FabricatorConfiguration target = new FabricatorConfiguration().freeze();
+
+		FabricatorConfiguration result = target.withGenerator(int.class, () -> 42);
+
+		assertTrue(result.isFrozen());
+		assertEquals(42, result.generate(int.class, null));
+		assertEquals(0, target.generate(int.class, null));
+	}
+
+	@Test
+	public void testFreeze_SharedBetweenThreads() throws Exception
+	{
+		FabricatorConfiguration frozen = new FabricatorConfiguration().withGenerator(long.class, () -> 42L);
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try
+		{
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int i = 0; i < 64; i++)
+			{
+				int seed = i;
+				results.add(executor.submit(() -> {
+					// Each thread derives its own variant while the others read the shared configuration
+					FabricatorConfiguration variant = frozen.withGenerator(int.class, () -> seed);
+					for (int j = 0; j < 100; j++)
+					{
+						FrozenTarget fromShared = new ObjectBuilder<>(FrozenTarget.class, frozen).fabricate();
+						FrozenTarget fromVariant = new ObjectBuilder<>(FrozenTarget.class, variant).fabricate();
+						if (fromShared.id != 42 || fromShared.count != 0 || fromVariant.id != 42 || fromVariant.count != seed)
+						{
+							return false;
+						}
+					}
+					return true;
+				}));
+			}
+
+			for (Future<Boolean> result : results)
+			{
+				assertTrue(result.get());
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	public static class FrozenTarget
+	{
+		public long id;
+		public int count;
+	}
+
 	public enum TestEnum
 	{
 		FIRST,
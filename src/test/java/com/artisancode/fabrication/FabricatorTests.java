@@ -92,6 +92,117 @@ public class FabricatorTests
 	}
 
 
+	@Test
+	public void testFabricationChain_ReflectionFieldWriterEngine_ObjectGeneratedAndCreatedCorrectly() throws Exception
+	{
+		FabricatorConfiguration testConfig = new FabricatorConfiguration(3);
+		testConfig.fieldWriterEngine = ReflectionFieldWriterEngine.INSTANCE;
+
+		PrimitiveTestObject result = new Fabricator<PrimitiveTestObject>()
+				                             .createNew(PrimitiveTestObject.class, testConfig)
+				                             .fabricate();
+
+		assertPrimitiveTestObject(result, 3);
+	}
+
+	@Test
+	public void testFabricationChain_MethodHandleFieldWriterEngine_PrimitivesWrittenWithoutGenerators() throws Exception
+	{
+		FabricatorConfiguration testConfig = new FabricatorConfiguration(3);
+		testConfig.fieldWriterEngine = MethodHandleFieldWriterEngine.INSTANCE;
+
+		PrimitiveTestObject result = new Fabricator<PrimitiveTestObject>()
+				                             .createNew(PrimitiveTestObject.class, testConfig)
+				                             .fabricate();
+
+		assertPrimitiveTestObject(result, 3);
+	}
+
+	@Test
+	public void testFabricationChain_MethodHandleFieldWriterEngineWithCustomGenerator_CustomGeneratorUsed() throws Exception
+	{
+		FabricatorConfiguration testConfig = new FabricatorConfiguration();
+		testConfig.fieldWriterEngine = MethodHandleFieldWriterEngine.INSTANCE;
+		testConfig.customGenerators.put(long.class, () -> 123L);
+
+		PrimitiveTestObject result = new Fabricator<PrimitiveTestObject>()
+				                             .createNew(PrimitiveTestObject.class, testConfig)
+				                             .fabricate();
+
+		assertEquals(123L, result.longValue);
+		assertEquals(0, result.intValue);
+	}
+
+	private void assertPrimitiveTestObject(PrimitiveTestObject result, int seed)
+	{
+		assertEquals(seed, result.intValue);
+		assertEquals(seed, result.longValue);
+		assertEquals(seed, result.doubleValue, 0);
+		assertEquals(seed, result.floatValue, 0);
+		assertEquals(seed, result.shortValue);
+		assertEquals(seed, result.byteValue);
+		assertEquals((char) ('A' + seed), result.charValue);
+		assertFalse(result.booleanValue);
+		assertEquals("name", result.name);
+	}
+
+	@Test
+	public void testFabricationChain_GeneratedFabricatorRegistered_GeneratedFabricatorUsed() throws Exception
+	{
+		GeneratedTestObject result = new Fabricator<GeneratedTestObject>()
+				                             .createNew(GeneratedTestObject.class)
+				                             .with(x -> x.age = 7)
+				                             .fabricate();
+
+		assertEquals("generated", result.name);
+		assertEquals(7, result.age);
+	}
+
+	@Test
+	public void testFabricateInto_ExistingInstance_FieldsResetAndModifiersApplied() throws Exception
+	{
+		ObjectBuilder<TestObject> builder = new ObjectBuilder<TestObject>(TestObject.class, new FabricatorConfiguration())
+				                                    .with(x -> x.age = 7);
+		TestObject existing = builder.fabricate();
+		existing.name = "changed";
+		existing.title = null;
+		existing.hungry = true;
+
+		TestObject result = builder.fabricateInto(existing);
+
+		assertSame(existing, result);
+		assertEquals("name", result.name);
+		assertEquals("title", result.title);
+		assertEquals(7, result.age);
+		assertFalse(result.hungry);
+	}
+
+	@Test
+	public void testFabricateInto_RecursiveConfiguration_NestedObjectsReused() throws Exception
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.recursive = true;
+		ObjectBuilder<FabricatorConfigurationTests.TestClassRecursiveLimit> builder = new ObjectBuilder<>(FabricatorConfigurationTests.TestClassRecursiveLimit.class, configuration);
+		FabricatorConfigurationTests.TestClassRecursiveLimit existing = builder.fabricate();
+		FabricatorConfigurationTests.TestClassRecursiveLimit nested = existing.innerObject;
+		nested.generation = 100;
+		nested.innerObject = null;
+
+		builder.fabricateInto(existing);
+
+		assertSame(nested, existing.innerObject);
+		assertEquals(1, nested.generation);
+		// The cleared branch has to be fabricated again
+		assertNotNull(nested.innerObject);
+		assertEquals(2, nested.innerObject.generation);
+	}
+
+	@Test(expected = FabricationException.class)
+	public void testFabricateInto_NullInstance_ExceptionThrown() throws Exception
+	{
+		new ObjectBuilder<TestObject>(TestObject.class, new FabricatorConfiguration()).fabricateInto(null);
+	}
+
 	@Test
 	public void testFluentCollectionInterface()
 	{
@@ -138,4 +249,41 @@ public class FabricatorTests
 	{
 		public boolean inheritedFlag;
 	}
-}
\ No newline at end of file
+
+	public class PrimitiveTestObject
+	{
+		public int intValue;
+		public long longValue;
+		public double doubleValue;
+		public float floatValue;
+		public short shortValue;
+		public byte byteValue;
+		public char charValue;
+		public boolean booleanValue;
+		public String name;
+	}
+
+	public static class GeneratedTestObject
+	{
+		public String name;
+		public int age;
+	}
+
+	public static class GeneratedTestObjectFabricator implements GeneratedFabricator<GeneratedTestObject>
+	{
+		@Override
+		public Class<GeneratedTestObject> target()
+		{
+			return GeneratedTestObject.class;
+		}
+
+		@Override
+		public GeneratedTestObject fabricate(FabricatorConfiguration configuration)
+		{
+			GeneratedTestObject result = new GeneratedTestObject();
+			result.name = "generated";
+			result.age = (Integer) configuration.generate(int.class, "age");
+			return result;
+		}
+	}
+}
@@ -0,0 +1,253 @@
+package com.artisancode.fabrication;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class FixtureStoreTests
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testLoad_FirstRun_FabricatedAndStored() throws Exception
+	{
+		FixtureStore store = new FixtureStore(folder.getRoot().toPath().resolve("fixtures"));
+		CollectionBuilder<StoredObject> builder = configure(new AtomicInteger());
+
+		List<StoredObject> result = store.load(builder, "v1");
+
+		assertTrue(Files.exists(store.fileFor(builder, "v1")));
+		assertEquals(4, result.size());
+		assertEquals("first", result.get(0).name);
+		assertEquals("name", result.get(1).name);
+		assertEquals(StoredEnum.FIRST, result.get(0).kind);
+		assertEquals(new Date(1000), result.get(0).created);
+		assertEquals(Instant.ofEpochSecond(2000), result.get(0).instant);
+		assertEquals(LocalDateTime.of(2020, 1, 2, 3, 4), result.get(0).localDateTime);
+		assertEquals(1, result.get(0).child.generation);
+		assertEquals(2, result.get(0).child.child.generation);
+		assertNull(result.get(2).child);
+	}
+
+	@Test
+	public void testLoad_StoredFixture_MappedWithoutFabricating() throws Exception
+	{
+		FixtureStore store = new FixtureStore(folder.getRoot().toPath());
+		AtomicInteger modifications = new AtomicInteger();
+		store.load(configure(modifications), "v1");
+		int afterFirstRun = modifications.get();
+
+		List<StoredObject> result = store.load(configure(modifications), "v1");
+
+		assertEquals(afterFirstRun, modifications.get());
+		assertEquals("first", result.get(0).name);
+		assertSame(result.get(0), result.get(0));
+		assertEquals(6.5, result.get(3).ratio, 0);
+		assertEquals('B', result.get(3).letter);
+	}
+
+	@Test
+	public void testLoad_DifferentPlanKeyOrSeed_DifferentFixture() throws Exception
+	{
+		FixtureStore store = new FixtureStore(folder.getRoot().toPath());
+		CollectionBuilder<StoredObject> builder = configure(new AtomicInteger());
+		Path original = store.fileFor(builder, "v1");
+
+		assertNotEquals(original, store.fileFor(builder, "v2"));
+
+		builder.configuration.generationSeed = 10;
+		assertNotEquals(original, store.fileFor(builder, "v1"));
+	}
+
+	@Test(expected = FabricationException.class)
+	public void testLoad_UnsupportedFieldType_ExceptionThrown() throws Exception
+	{
+		new FixtureStore(folder.getRoot().toPath()).load(new CollectionBuilder<>(UnsupportedObject.class), "v1");
+	}
+
+	@Test
+	public void testLoad_UnsupportedFieldAlwaysNull_Stored() throws Exception
+	{
+		List<NullFieldObject> result = new FixtureStore(folder.getRoot().toPath()).load(new CollectionBuilder<>(NullFieldObject.class).ofSize(2), "v1");
+
+		assertEquals("name", result.get(1).name);
+		assertNull(result.get(1).callback);
+	}
+
+	@Test
+	public void testLoad_ContainerFields_RoundTripped() throws Exception
+	{
+		FixtureStore store = new FixtureStore(folder.getRoot().toPath());
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.containerSize = 3;
+		CollectionBuilder<ContainerObject> builder = new CollectionBuilder<>(ContainerObject.class, configuration).ofSize(2);
+		ContainerObject expected = new ObjectBuilder<>(ContainerObject.class, configuration).fabricate();
+
+		store.load(builder, "v1");
+		ContainerObject result = store.load(builder, "v1").get(1);
+
+		assertEquals(expected.tags, result.tags);
+		assertEquals(expected.numbers, result.numbers);
+		assertEquals(3, result.children.size());
+		assertEquals(expected.children.get("children[2]").generation, result.children.get("children[2]").generation);
+		assertArrayEquals(expected.counts, result.counts);
+		assertArrayEquals(expected.grid[2], result.grid[2]);
+	}
+
+	@Test
+	public void testKey_ContainerSizeOrElementType_DifferentFixture() throws Exception
+	{
+		FixtureStore store = new FixtureStore(folder.getRoot().toPath());
+		CollectionBuilder<ContainerObject> builder = new CollectionBuilder<>(ContainerObject.class);
+		Path original = store.fileFor(builder, "v1");
+
+		builder.configuration.containerSize = 3;
+		assertNotEquals(original, store.fileFor(builder, "v1"));
+		assertNotEquals(FixtureCodec.structureHash(ContainerObject.class), FixtureCodec.structureHash(OtherContainerObject.class));
+	}
+
+	@Test
+	public void testKey_GeneratorOrSharingChanged_DifferentFixture() throws Exception
+	{
+		FixtureStore store = new FixtureStore(folder.getRoot().toPath());
+		Path original = store.fileFor(configureGenerator(1), "v1");
+
+		// The same lambda capturing the same value is the same generator
+		assertEquals(original, store.fileFor(configureGenerator(1), "v1"));
+		assertNotEquals(original, store.fileFor(configureGenerator(2), "v1"));
+
+		CollectionBuilder<StoredObject> builder = configureGenerator(1);
+		builder.configuration.customGenerators.put(Integer.class, () -> 1);
+		assertNotEquals(original, store.fileFor(builder, "v1"));
+
+		builder = configureGenerator(1);
+		builder.configuration.instanceSharing = InstanceSharing.PER_TYPE;
+		assertNotEquals(original, store.fileFor(builder, "v1"));
+	}
+
+	@Test
+	public void testLoad_GeneratorChanged_FixtureNotReused() throws Exception
+	{
+		FixtureStore store = new FixtureStore(folder.getRoot().toPath());
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.customGenerators.put(String.class, () -> "first");
+		CollectionBuilder<NullFieldObject> builder = new CollectionBuilder<>(NullFieldObject.class, configuration).ofSize(1);
+		store.load(builder, "v1");
+
+		configuration.customGenerators.put(String.class, () -> "second");
+		configuration.useFieldNameForString = false;
+
+		assertEquals("second", store.load(builder, "v1").get(0).name);
+	}
+
+	@Test(expected = FabricationException.class)
+	public void testLoad_CyclicGraph_ExceptionThrown() throws Exception
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.instanceSharing = InstanceSharing.PER_TYPE;
+
+		new FixtureStore(folder.getRoot().toPath()).load(new CollectionBuilder<>(CyclicObject.class, configuration).ofSize(1), "v1");
+	}
+
+	private CollectionBuilder<StoredObject> configure(AtomicInteger modifications)
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.currentDate = () -> new Date(1000);
+		configuration.currentInstant = () -> Instant.ofEpochSecond(2000);
+		configuration.currentLocalDateTime = () -> LocalDateTime.of(2020, 1, 2, 3, 4);
+
+		return new CollectionBuilder<StoredObject>(StoredObject.class, configuration)
+				       .ofSize(4)
+				       .all().with(x -> modifications.incrementAndGet())
+				       .theFirst(1).with(x -> x.name = "first")
+				       .theNth(2).with(x -> x.child = null)
+				       .theLast(1).with(x -> {
+					       x.ratio = 6.5;
+					       x.letter = 'B';
+				       });
+	}
+
+	private CollectionBuilder<StoredObject> configureGenerator(int value)
+	{
+		CollectionBuilder<StoredObject> builder = configure(new AtomicInteger());
+		builder.configuration.customGenerators.put(Integer.class, () -> value);
+		return builder;
+	}
+
+	public enum StoredEnum
+	{
+		FIRST,
+		SECOND
+	}
+
+	public static class StoredObject
+	{
+		public String name;
+		public double ratio;
+		public char letter;
+		public StoredEnum kind;
+		public Date created;
+		public Instant instant;
+		public LocalDateTime localDateTime;
+		public StoredChild child;
+	}
+
+	public static class StoredChild
+	{
+		public final int generation;
+		public StoredChild child;
+
+		public StoredChild(int generation)
+		{
+			this.generation = generation;
+		}
+	}
+
+	public static class NullFieldObject
+	{
+		public String name;
+		public Runnable callback;
+	}
+
+	public static class CyclicObject
+	{
+		public String name;
+		public CyclicObject next;
+	}
+
+	public static class ContainerObject
+	{
+		public List<String> tags;
+		public Set<Integer> numbers;
+		public Map<String, StoredChild> children;
+		public int[] counts;
+		public String[][] grid;
+	}
+
+	public static class OtherContainerObject
+	{
+		public List<Integer> tags;
+		public Set<Integer> numbers;
+		public Map<String, StoredChild> children;
+		public int[] counts;
+		public String[][] grid;
+	}
+
+	public static class UnsupportedObject
+	{
+		public Object value;
+	}
+}
@@ -0,0 +1,37 @@
+package com.artisancode.fabrication;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FlightRecorderListenerTests
+{
+	@Test
+	public void testFabricationUnaffectedByListener()
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.addListener(new FlightRecorderListener());
+
+		List<FabricatorTests.TestObject> result = new CollectionBuilder<FabricatorTests.TestObject>(FabricatorTests.TestObject.class, configuration)
+				                                          .ofSize(5)
+				                                          .all().with(x -> x.name = "bob")
+				                                          .fabricate();
+
+		assertEquals(5, result.size());
+		assertEquals("bob", result.get(4).name);
+	}
+
+	@Test
+	public void testListener_GraphNotTracked()
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.addListener(new FlightRecorderListener());
+
+		assertFalse(configuration.tracksGraph());
+
+		configuration.addListener(new FabricationMetrics());
+		assertTrue(configuration.tracksGraph());
+	}
+}
@@ -0,0 +1,64 @@
+package com.artisancode.fabrication;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IndexSamplerTests
+{
+	@Test
+	public void testSampleSparseSelection()
+	{
+		assertValidSample(IndexSampler.sample(new Random(1234), 10, 1_000_000), 10, 1_000_000);
+	}
+
+	@Test
+	public void testSampleMediumSelection()
+	{
+		assertValidSample(IndexSampler.sample(new Random(1234), 300, 1_000), 300, 1_000);
+	}
+
+	@Test
+	public void testSampleDenseSelection()
+	{
+		assertValidSample(IndexSampler.sample(new Random(1234), 999_000, 1_000_000), 999_000, 1_000_000);
+	}
+
+	@Test
+	public void testSampleEveryIndex()
+	{
+		int[] result = IndexSampler.sample(new Random(1234), 5, 5);
+
+		assertArrayEquals(new int[]{0, 1, 2, 3, 4}, result);
+	}
+
+	@Test
+	public void testSampleIsDeterministicForSeed()
+	{
+		assertArrayEquals(IndexSampler.sample(new Random(99), 20, 1_000), IndexSampler.sample(new Random(99), 20, 1_000));
+		assertArrayEquals(IndexSampler.sample(new Random(99), 200, 1_000), IndexSampler.sample(new Random(99), 200, 1_000));
+		assertArrayEquals(IndexSampler.sample(new Random(99), 900, 1_000), IndexSampler.sample(new Random(99), 900, 1_000));
+	}
+
+	@Test(expected = FabricationException.class)
+	public void testSampleMoreThanSize()
+	{
+		IndexSampler.sample(new Random(1234), 6, 5);
+	}
+
+	private void assertValidSample(int[] result, int count, int size)
+	{
+		assertEquals(count, result.length);
+		for (int i = 0; i < result.length; i++)
+		{
+			assertTrue(result[i] >= 0 && result[i] < size);
+			if (i > 0)
+			{
+				// Sorted and distinct
+				assertTrue(result[i - 1] < result[i]);
+			}
+		}
+	}
+}
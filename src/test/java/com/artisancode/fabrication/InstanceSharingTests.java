@@ -0,0 +1,209 @@
+package com.artisancode.fabrication;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class InstanceSharingTests
+{
+	@Test
+	public void testNoSharing_EveryFieldFabricated()
+	{
+		FabricationMetrics metrics = new FabricationMetrics();
+
+		Root result = new ObjectBuilder<>(Root.class, configure(InstanceSharing.NONE, metrics)).fabricate();
+
+		assertNotSame(result.left, result.right);
+		assertNotSame(result.left.leaf, result.right.leaf);
+		// 1 root, 2 branches, 4 branch leaves and 1 root leaf
+		assertEquals(8, metrics.getObjectCount());
+	}
+
+	@Test
+	public void testPerDepth_OneObjectPerTypeAndDepth()
+	{
+		FabricationMetrics metrics = new FabricationMetrics();
+
+		Root result = new ObjectBuilder<>(Root.class, configure(InstanceSharing.PER_DEPTH, metrics)).fabricate();
+
+		assertSame(result.left, result.right);
+		assertSame(result.left.leaf, result.left.otherLeaf);
+		// The root's leaf is one level up from the branches' leaves
+		assertNotSame(result.leaf, result.left.leaf);
+		assertEquals(4, metrics.getObjectCount());
+	}
+
+	@Test
+	public void testPerType_OneObjectPerType()
+	{
+		FabricationMetrics metrics = new FabricationMetrics();
+
+		Root result = new ObjectBuilder<>(Root.class, configure(InstanceSharing.PER_TYPE, metrics)).fabricate();
+
+		assertSame(result.left, result.right);
+		assertSame(result.leaf, result.left.leaf);
+		assertEquals(3, metrics.getObjectCount());
+	}
+
+	@Test
+	public void testSelfReference_ClosedIntoCycle()
+	{
+		FabricationMetrics metrics = new FabricationMetrics();
+
+		Node result = new ObjectBuilder<>(Node.class, configure(InstanceSharing.PER_DEPTH, metrics)).fabricate();
+
+		assertSame(result, result.next);
+		assertSame(result, result.child.parent);
+		assertEquals(2, metrics.getObjectCount());
+	}
+
+	@Test
+	public void testCollection_SharedWithinEachElementOnly()
+	{
+		List<Root> result = new CollectionBuilder<Root>(Root.class, configure(InstanceSharing.PER_TYPE, null))
+				                    .ofSize(3)
+				                    .fabricate();
+
+		assertNotSame(result.get(0), result.get(1));
+		assertSame(result.get(0).left, result.get(0).right);
+		assertNotSame(result.get(0).left, result.get(1).left);
+	}
+
+	@Test
+	public void testCollection_SharedAcrossCollection_NestedObjectsShared()
+	{
+		FabricatorConfiguration configuration = configure(InstanceSharing.PER_TYPE, null);
+		configuration.shareInstancesAcrossCollection = true;
+
+		List<Root> result = new CollectionBuilder<Root>(Root.class, configuration)
+				                    .ofSize(20)
+				                    .parallelism(4)
+				                    .fabricate();
+
+		assertNotSame(result.get(0), result.get(19));
+		for (Root element : result)
+		{
+			assertSame(result.get(0).leaf, element.leaf);
+		}
+	}
+
+	@Test(expected = FabricationException.class)
+	public void testJsonLines_CyclicGraph_ExceptionThrown() throws Exception
+	{
+		new CollectionBuilder<Node>(Node.class, configure(InstanceSharing.PER_TYPE, null))
+				.ofSize(1)
+				.writeTo(Channels.newChannel(new ByteArrayOutputStream()), new JsonLinesDatasetWriter());
+	}
+
+	@Test
+	public void testCsv_CyclicGraph_ColumnsStopAtRecursionLimit() throws Exception
+	{
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		new CollectionBuilder<Leaf>(Leaf.class, configure(InstanceSharing.PER_TYPE, null))
+				.ofSize(2)
+				.writeTo(Channels.newChannel(output), new CsvDatasetWriter());
+		new CollectionBuilder<Node>(Node.class, configure(InstanceSharing.PER_TYPE, null))
+				.ofSize(2)
+				.writeTo(Channels.newChannel(output), new CsvDatasetWriter());
+
+		assertEquals("name\r\nname\r\nname\r\n\r\n\r\n\r\n", new String(output.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testFabricateInto_CyclicGraph_CycleKept()
+	{
+		ObjectBuilder<Node> builder = new ObjectBuilder<>(Node.class, configure(InstanceSharing.PER_DEPTH, null));
+		Node existing = builder.fabricate();
+		Child child = existing.child;
+
+		Node result = builder.fabricateInto(existing);
+
+		assertSame(result, result.next);
+		assertSame(child, result.child);
+		assertSame(result, result.child.parent);
+	}
+
+	@Test
+	public void testFabricateInto_EmptyObject_NewObjectsShared()
+	{
+		FabricationMetrics metrics = new FabricationMetrics();
+
+		Root result = new ObjectBuilder<>(Root.class, configure(InstanceSharing.PER_TYPE, metrics)).fabricateInto(new Root());
+
+		assertNotNull(result.left);
+		assertSame(result.left, result.right);
+		assertSame(result.leaf, result.left.leaf);
+		assertEquals(3, metrics.getLargestGraphObjects());
+	}
+
+	@Test
+	public void testFabricateInto_UnsharedGraph_RefilledLikeNewGraph()
+	{
+		Root existing = new ObjectBuilder<>(Root.class, configure(InstanceSharing.NONE, null)).fabricate();
+		Branch left = existing.left;
+
+		Root result = new ObjectBuilder<>(Root.class, configure(InstanceSharing.PER_DEPTH, null)).fabricateInto(existing);
+
+		assertSame(left, result.left);
+		assertSame(result.left, result.right);
+		assertSame(result.left.leaf, result.left.otherLeaf);
+		assertNotSame(result.leaf, result.left.leaf);
+	}
+
+	@Test
+	public void testCollectionRefill_SharedAcrossCollection_NestedObjectsShared()
+	{
+		FabricatorConfiguration configuration = configure(InstanceSharing.PER_TYPE, null);
+		configuration.shareInstancesAcrossCollection = true;
+		List<Root> existing = new java.util.ArrayList<>();
+		existing.add(new Root());
+		existing.add(new Root());
+
+		List<Root> result = new CollectionBuilder<Root>(Root.class, configuration).ofSize(2).refill(existing);
+
+		assertSame(result.get(0).leaf, result.get(1).leaf);
+	}
+
+	private FabricatorConfiguration configure(InstanceSharing sharing, FabricationListener listener)
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.instanceSharing = sharing;
+		configuration.addListener(listener);
+		return configuration;
+	}
+
+	public static class Root
+	{
+		public Branch left;
+		public Branch right;
+		public Leaf leaf;
+	}
+
+	public static class Branch
+	{
+		public Leaf leaf;
+		public Leaf otherLeaf;
+	}
+
+	public static class Leaf
+	{
+		public String name;
+	}
+
+	public static class Node
+	{
+		public Node next;
+		public Child child;
+	}
+
+	public static class Child
+	{
+		public Node parent;
+	}
+}
@@ -0,0 +1,46 @@
+package com.artisancode.fabrication;
+
+import org.junit.Test;
+import org.objenesis.instantiator.ObjectInstantiator;
+
+import static org.junit.Assert.*;
+
+public class InstantiatorsTests
+{
+	@Test
+	public void testInstantiatorIsSharedPerClass()
+	{
+		ObjectInstantiator<FabricatorTests.TestObject> first = Instantiators.of(FabricatorTests.TestObject.class);
+		ObjectInstantiator<FabricatorTests.TestObject> second = Instantiators.of(FabricatorTests.TestObject.class);
+
+		assertSame(first, second);
+		assertNotNull(first.newInstance());
+	}
+
+	@Test
+	public void testPublicNoArgConstructorUsesConstructorHandle()
+	{
+		ObjectInstantiator<NoArgConstructorObject> instantiator = Instantiators.of(NoArgConstructorObject.class);
+
+		assertTrue(instantiator instanceof Instantiators.ConstructorInstantiator);
+		assertEquals("constructed", instantiator.newInstance().state);
+	}
+
+	@Test
+	public void testInnerClassFallsBackToObjenesis()
+	{
+		ObjectInstantiator<FabricatorTests.TestObject> instantiator = Instantiators.of(FabricatorTests.TestObject.class);
+
+		assertFalse(instantiator instanceof Instantiators.ConstructorInstantiator);
+	}
+
+	public static class NoArgConstructorObject
+	{
+		public String state;
+
+		public NoArgConstructorObject()
+		{
+			state = "constructed";
+		}
+	}
+}
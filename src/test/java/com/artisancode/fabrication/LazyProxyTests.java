@@ -0,0 +1,134 @@
+package com.artisancode.fabrication;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LazyProxyTests
+{
+	@Test
+	public void testInterfaceField_LazyProxiesOff_Null()
+	{
+		Holder result = new ObjectBuilder<>(Holder.class, new FabricatorConfiguration()).fabricate();
+
+		assertNull(result.address);
+	}
+
+	@Test
+	public void testInterfaceField_LazyProxiesOn_ValuesGeneratedOnFirstCall()
+	{
+		FabricationMetrics metrics = new FabricationMetrics();
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.lazyProxies = true;
+		configuration.addListener(metrics);
+
+		Holder result = new ObjectBuilder<>(Holder.class, configuration).fabricate();
+		long objectsBeforeUse = metrics.getObjectCount();
+
+		assertNotNull(result.address);
+		assertEquals("street", result.address.getStreet());
+		assertEquals(1, result.address.getNumber());
+		assertFalse(result.address.isPrimary());
+		assertEquals(2, result.address.getLines().size());
+		assertEquals(objectsBeforeUse, metrics.getObjectCount());
+
+		Owner owner = result.address.getOwner();
+		assertEquals(objectsBeforeUse + 1, metrics.getObjectCount());
+		assertSame(owner, result.address.getOwner());
+		assertEquals(2, owner.generation);
+	}
+
+	@Test
+	public void testInterfaceField_Setter_ReplacesGeneratedValue()
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.lazyProxies = true;
+
+		Holder result = new ObjectBuilder<>(Holder.class, configuration)
+				                .with(x -> x.address.setStreet("High Street"))
+				                .fabricate();
+
+		assertEquals("High Street", result.address.getStreet());
+		assertEquals(result.address, result.address);
+		assertTrue(result.address.toString().startsWith("LazyAddress@"));
+	}
+
+	@Test
+	public void testDecapitalize_JavaBeansPropertyNames()
+	{
+		assertEquals("name", LazyProxy.decapitalize("Name"));
+		assertEquals("n", LazyProxy.decapitalize("N"));
+		assertEquals("URL", LazyProxy.decapitalize("URL"));
+		assertEquals("xCoordinate", LazyProxy.decapitalize("xCoordinate"));
+	}
+
+	@Test
+	public void testJdkInterfaceField_LazyProxiesOn_Null()
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.lazyProxies = true;
+
+		Holder result = new ObjectBuilder<>(Holder.class, configuration).fabricate();
+
+		assertNull(result.task);
+	}
+
+	@Test
+	public void testInterfaceField_BudgetExhausted_NoProxy()
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.lazyProxies = true;
+		configuration.maxObjects = 1;
+
+		Holder result = new ObjectBuilder<>(Holder.class, configuration).fabricate();
+
+		assertNull(result.address);
+	}
+
+	@Test
+	public void testInterfaceField_LaterCalls_PartOfCreatingGraph()
+	{
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.lazyProxies = true;
+		configuration.instanceSharing = InstanceSharing.PER_TYPE;
+
+		SharedHolder result = new ObjectBuilder<>(SharedHolder.class, configuration).fabricate();
+
+		assertNotNull(result.owner);
+		assertSame(result.owner, result.address.getOwner());
+	}
+
+	public interface Address
+	{
+		String getStreet();
+
+		void setStreet(String street);
+
+		int getNumber();
+
+		boolean isPrimary();
+
+		List<String> getLines();
+
+		Owner getOwner();
+	}
+
+	public static class Owner
+	{
+		public int generation;
+	}
+
+	public static class Holder
+	{
+		public Address address;
+		public Runnable task;
+	}
+
+	public static class SharedHolder
+	{
+		public Owner owner;
+		public Address address;
+	}
+}
@@ -0,0 +1,211 @@
+package com.artisancode.fabrication;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ObjectCopierTests
+{
+	@Test
+	public void testShallowCopy_FieldsCopiedAndNestedObjectsShared()
+	{
+		Parent source = new Parent(3);
+		source.name = "parent";
+		source.ratio = 2.5;
+		source.child = new Child();
+		source.child.name = "child";
+
+		Parent result = ObjectCopier.copy(source, PrototypeCopy.SHALLOW);
+
+		assertNotSame(source, result);
+		assertEquals("parent", result.name);
+		assertEquals(2.5, result.ratio, 0);
+		assertEquals(3, result.id);
+		assertSame(source.child, result.child);
+	}
+
+	@Test
+	public void testDeepCopy_NestedObjectsCopied()
+	{
+		Parent source = new Parent(3);
+		source.child = new Child();
+		source.child.name = "child";
+		source.created = new Date(1000);
+
+		Parent result = ObjectCopier.copy(source, PrototypeCopy.DEEP);
+
+		assertNotSame(source.child, result.child);
+		assertEquals("child", result.child.name);
+		assertNotSame(source.created, result.created);
+		assertEquals(source.created, result.created);
+	}
+
+	@Test
+	public void testDeepCopy_SharedAndCyclicReferencesPreserved()
+	{
+		Parent source = new Parent(1);
+		source.child = new Child();
+		source.otherChild = source.child;
+		source.child.parent = source;
+
+		Parent result = ObjectCopier.copy(source, PrototypeCopy.DEEP);
+
+		assertNotSame(source.child, result.child);
+		assertSame(result.child, result.otherChild);
+		assertSame(result, result.child.parent);
+	}
+
+	@Test
+	public void testDeepCopy_SortedContainers_ComparatorKept()
+	{
+		ContainerHolder source = new ContainerHolder();
+		source.sorted = new TreeSet<>(Comparator.reverseOrder());
+		source.sorted.add("a");
+		source.sorted.add("b");
+		source.sortedMap = new TreeMap<>(Comparator.reverseOrder());
+		source.sortedMap.put("a", 1);
+		source.view = Collections.unmodifiableSortedSet(source.sorted);
+
+		ContainerHolder result = ObjectCopier.copy(source, PrototypeCopy.DEEP);
+
+		assertNotSame(source.sorted, result.sorted);
+		assertEquals(Comparator.reverseOrder(), result.sorted.comparator());
+		assertEquals("b", result.sorted.first());
+		assertEquals(Comparator.reverseOrder(), result.sortedMap.comparator());
+		assertEquals(Comparator.reverseOrder(), result.view.comparator());
+		assertEquals(source.view, result.view);
+	}
+
+	@Test
+	public void testDeepCopy_EnumContainers_TypeKept()
+	{
+		ContainerHolder source = new ContainerHolder();
+		source.units = EnumSet.of(TimeUnit.SECONDS);
+		source.noUnits = EnumSet.noneOf(TimeUnit.class);
+		source.unitNames = new EnumMap<>(TimeUnit.class);
+		source.unitNames.put(TimeUnit.DAYS, "days");
+
+		ContainerHolder result = ObjectCopier.copy(source, PrototypeCopy.DEEP);
+
+		assertNotSame(source.units, result.units);
+		assertEquals(EnumSet.of(TimeUnit.SECONDS), result.units);
+		assertNotSame(source.noUnits, result.noUnits);
+		result.noUnits.add(TimeUnit.DAYS);
+		assertNotSame(source.unitNames, result.unitNames);
+		assertEquals("days", result.unitNames.get(TimeUnit.DAYS));
+	}
+
+	@Test
+	public void testDeepCopy_PrimitiveArrays_Copied()
+	{
+		ContainerHolder source = new ContainerHolder();
+		source.counts = new int[]{1, 2, 3};
+
+		ContainerHolder result = ObjectCopier.copy(source, PrototypeCopy.DEEP);
+
+		assertNotSame(source.counts, result.counts);
+		assertArrayEquals(source.counts, result.counts);
+	}
+
+	@Test
+	public void testDeepCopy_UnmodifiableContainers_StayUnmodifiable()
+	{
+		ContainerHolder source = new ContainerHolder();
+		source.names = Collections.unmodifiableList(new ArrayList<>(Arrays.asList("a", "b")));
+		source.dates = Collections.singletonList(new Date(1000));
+		source.lookup = Collections.unmodifiableMap(new HashMap<>(Collections.singletonMap("a", 1)));
+
+		ContainerHolder result = ObjectCopier.copy(source, PrototypeCopy.DEEP);
+
+		assertEquals(source.names, result.names);
+		assertEquals(source.dates, result.dates);
+		assertNotSame(source.dates.get(0), result.dates.get(0));
+		assertEquals(source.lookup, result.lookup);
+		assertUnsupported(() -> result.names.add("c"));
+		assertUnsupported(() -> result.dates.add(new Date()));
+		assertUnsupported(() -> result.lookup.put("b", 2));
+	}
+
+	@Test
+	public void testDeepCopy_LazyContainers_CopiedFilledAndMutable()
+	{
+		ContainerHolder source = new ContainerHolder();
+		source.items = new Containers.LazyList(() -> new ArrayList<>(Arrays.asList("a", "b")));
+
+		ContainerHolder result = ObjectCopier.copy(source, PrototypeCopy.DEEP);
+
+		assertFalse(result.items instanceof Containers.LazyList);
+		assertEquals(Arrays.asList("a", "b"), result.items);
+		result.items.add("c");
+		assertEquals(2, source.items.size());
+	}
+
+	private static void assertUnsupported(Runnable change)
+	{
+		try
+		{
+			change.run();
+			fail("Expected the copy to be unmodifiable");
+		}
+		catch (UnsupportedOperationException expected)
+		{
+		}
+	}
+
+	@Test
+	public void testCopy_Null_NullReturned()
+	{
+		assertNull(ObjectCopier.copy(null, PrototypeCopy.DEEP));
+	}
+
+	public static class Parent
+	{
+		public final int id;
+		public String name;
+		public double ratio;
+		public Date created;
+		public Child child;
+		public Child otherChild;
+
+		public Parent(int id)
+		{
+			this.id = id;
+		}
+	}
+
+	public static class ContainerHolder
+	{
+		public TreeSet<String> sorted;
+		public TreeMap<String, Integer> sortedMap;
+		public SortedSet<String> view;
+		public EnumSet<TimeUnit> units;
+		public EnumSet<TimeUnit> noUnits;
+		public EnumMap<TimeUnit, String> unitNames;
+		public int[] counts;
+		public List<String> names;
+		public List<Date> dates;
+		public Map<String, Integer> lookup;
+		public List<Object> items;
+	}
+
+	public static class Child
+	{
+		public String name;
+		public Parent parent;
+	}
+}
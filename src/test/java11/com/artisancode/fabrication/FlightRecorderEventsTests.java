@@ -0,0 +1,87 @@
+package com.artisancode.fabrication;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+// Runs against the packaged multi-release jar, since only it has the Java 11 listener that emits events
+public class FlightRecorderEventsTests
+{
+	@Test
+	public void testRecording_EventsEmitted() throws Exception
+	{
+		assertTrue(FlightRecorderListener.isSupported());
+
+		FabricatorConfiguration configuration = new FabricatorConfiguration();
+		configuration.addListener(new FlightRecorderListener());
+
+		Path file = Files.createTempFile("fabrication", ".jfr");
+		try
+		{
+			try (Recording recording = new Recording())
+			{
+				recording.enable("com.artisancode.fabrication.ObjectFabricated");
+				recording.enable("com.artisancode.fabrication.CollectionFabricated");
+				recording.enable("com.artisancode.fabrication.PlanBuilt");
+				recording.start();
+
+				new CollectionBuilder<RecordedObject>(RecordedObject.class, configuration)
+						.ofSize(3)
+						.theFirst(1).with(x -> x.count = 1)
+						.fabricate();
+
+				recording.stop();
+				recording.dump(file);
+			}
+
+			List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+			List<RecordedEvent> objects = named(events, "com.artisancode.fabrication.ObjectFabricated");
+			assertEquals(3, objects.size());
+			assertEquals(RecordedObject.class.getName(), objects.get(0).getClass("type").getName());
+			assertEquals(0, objects.get(0).getInt("depth"));
+			assertFalse(objects.get(0).getDuration().isNegative());
+
+			List<RecordedEvent> collections = named(events, "com.artisancode.fabrication.CollectionFabricated");
+			assertEquals(1, collections.size());
+			assertEquals(3, collections.get(0).getInt("size"));
+			assertEquals(1, collections.get(0).getInt("modifications"));
+			// Begun before the elements were built, so the collection's event spans every object's event
+			RecordedEvent collection = collections.get(0);
+			assertFalse(collection.getDuration().isZero());
+			for (RecordedEvent object : objects)
+			{
+				assertFalse(object.getStartTime().isBefore(collection.getStartTime()));
+				assertFalse(object.getEndTime().isAfter(collection.getEndTime()));
+			}
+
+			List<RecordedEvent> plans = named(events, "com.artisancode.fabrication.PlanBuilt");
+			assertEquals(1, plans.size());
+			assertEquals(RecordedObject.class.getName(), plans.get(0).getClass("type").getName());
+			assertEquals(2, plans.get(0).getInt("fields"));
+		}
+		finally
+		{
+			Files.delete(file);
+		}
+	}
+
+	private static List<RecordedEvent> named(List<RecordedEvent> events, String name)
+	{
+		return events.stream().filter(x -> x.getEventType().getName().equals(name)).collect(Collectors.toList());
+	}
+
+	public static class RecordedObject
+	{
+		public String name;
+		public int count;
+	}
+}